@@ -1,9 +1,14 @@
 package one.digitalinnovation.beerstock;
 
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(BeerStockProperties.class)
 public class BeerstockApplication {
 
 	public static void main(String[] args) {
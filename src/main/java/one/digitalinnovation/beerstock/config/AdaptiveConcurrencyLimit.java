@@ -0,0 +1,81 @@
+package one.digitalinnovation.beerstock.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests in flight with a limit found by AIMD: the limit grows by one when a request succeeds quickly
+ * while at least half of it is in use, and is cut by the backoff ratio when a request fails or is slower than the
+ * latency threshold. A request the client got wrong says nothing about the capacity left, so it only frees its slot. Over the limit a request is rejected at once rather than queued, so an overloaded database
+ * sheds load instead of letting every caller wait for its timeout.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos, Outcome outcome) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (outcome == Outcome.FAILED || latencyNanos > latencyThresholdNanos) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        } else if (outcome == Outcome.SUCCEEDED && inFlightBefore * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public enum Outcome {
+
+        /**
+         * Answered with a 2xx.
+         */
+        SUCCEEDED,
+
+        /**
+         * Turned down for a reason of the client's, with a 4xx, or answered otherwise without a server error.
+         */
+        REJECTED,
+
+        /**
+         * Answered with a 5xx or ended by an exception no handler resolved.
+         */
+        FAILED;
+
+        public static Outcome of(int status, Exception ex) {
+            if (ex != null || status >= 500) {
+                return FAILED;
+            }
+            return status >= 200 && status < 300 ? SUCCEEDED : REJECTED;
+        }
+    }
+}
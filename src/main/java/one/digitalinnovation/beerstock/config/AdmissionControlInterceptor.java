@@ -0,0 +1,123 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.exceptions.RateLimitExceededException;
+import one.digitalinnovation.beerstock.exceptions.ServiceOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the mutating endpoints, checked before they reach {@code BeerService}: a token bucket per
+ * client and one per beer written to answer 429 once emptied; an {@link AdaptiveConcurrencyLimit} answers 503 when
+ * the writes in flight reach it. Both set {@code Retry-After}.
+ * <p>
+ * Clients are told apart by {@link ClientResolver}.
+ * <p>
+ * Imports are rate limited but left out of the concurrency limit, since a single long import would otherwise read as
+ * overload and cut the limit for every other write.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    public static final String ADMISSION_COUNTER = "beerstock.admission.rejected";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final Set<String> LONG_RUNNING_PATTERNS = Set.of("/api/v1/beers/import");
+    private static final String STARTED_AT = AdmissionControlInterceptor.class.getName() + ".startedAt";
+
+    private final ClientResolver clientResolver;
+    private final TokenBuckets clientBuckets;
+    private final TokenBuckets beerBuckets;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Counter clientRejections;
+    private final Counter beerRejections;
+    private final Counter overloadRejections;
+
+    public AdmissionControlInterceptor(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        BeerStockProperties.Admission admission = properties.getAdmission();
+        this.clientResolver = new ClientResolver(properties);
+        this.clientBuckets = new TokenBuckets(admission.getClientRate(), admission.getClientBurst(), admission.getMaximumBuckets());
+        this.beerBuckets = new TokenBuckets(admission.getBeerRate(), admission.getBeerBurst(), admission.getMaximumBuckets());
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(admission.getInitialLimit(), admission.getMinLimit(),
+                admission.getMaxLimit(), admission.getLatencyThreshold().toNanos(), admission.getBackoffRatio());
+        this.clientRejections = counter(meterRegistry, "client");
+        this.beerRejections = counter(meterRegistry, "beer");
+        this.overloadRejections = counter(meterRegistry, "overload");
+        Gauge.builder("beerstock.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Writes currently allowed in flight")
+                .register(meterRegistry);
+        Gauge.builder("beerstock.admission.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Writes currently in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws RateLimitExceededException, ServiceOverloadedException {
+        if (READ_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+
+        String client = clientResolver.resolve(request);
+        long wait = clientBuckets.tryAcquire(client);
+        if (wait > 0) {
+            clientRejections.increment();
+            retryAfter(response, wait);
+            throw new RateLimitExceededException("client " + client);
+        }
+        String beerId = beerIdOf(request);
+        if (beerId != null) {
+            wait = beerBuckets.tryAcquire(beerId);
+            if (wait > 0) {
+                beerRejections.increment();
+                retryAfter(response, wait);
+                throw new RateLimitExceededException("beer " + beerId);
+            }
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null && LONG_RUNNING_PATTERNS.contains(pattern)) {
+            return true;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            overloadRejections.increment();
+            retryAfter(response, TimeUnit.SECONDS.toNanos(1));
+            throw new ServiceOverloadedException(concurrencyLimit.getLimit());
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt != null) {
+            request.removeAttribute(STARTED_AT);
+            concurrencyLimit.release(System.nanoTime() - (Long) startedAt, AdaptiveConcurrencyLimit.Outcome.of(response.getStatus(), ex));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String beerIdOf(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables == null ? null : variables.get("id");
+    }
+
+    private static void retryAfter(HttpServletResponse response, long waitNanos) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(ADMISSION_COUNTER)
+                .description("Writes turned away before reaching the service, by the limit they hit")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,417 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import one.digitalinnovation.beerstock.enums.OutboxPublisherType;
+import one.digitalinnovation.beerstock.enums.StockAdjustmentMode;
+import one.digitalinnovation.beerstock.enums.StockAlertSinkType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "beerstock")
+public class BeerStockProperties {
+
+    private final Stock stock = new Stock();
+
+    private final Cache cache = new Cache();
+
+    private final NameFilter nameFilter = new NameFilter();
+
+    private final Alerts alerts = new Alerts();
+
+    private final StockEvents stockEvents = new StockEvents();
+
+    private final Journal journal = new Journal();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final CatalogImport catalogImport = new CatalogImport();
+
+    private final CatalogExport catalogExport = new CatalogExport();
+
+    private final Reservations reservations = new Reservations();
+
+    private final Replicas replicas = new Replicas();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Admission admission = new Admission();
+
+    @Data
+    public static class Stock {
+
+        /**
+         * How increments and decrements are written: one conditional UPDATE, or a versioned read-modify-write.
+         */
+        private StockAdjustmentMode adjustmentMode = StockAdjustmentMode.CONDITIONAL;
+
+        /**
+         * Attempts made by the optimistic mode before a conflict is reported to the client.
+         */
+        private int maxAttempts = 5;
+
+        private final Ledger ledger = new Ledger();
+    }
+
+    @Data
+    public static class Ledger {
+
+        /**
+         * Keeps hot stock in memory and writes it behind; when disabled every adjustment is written through.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Pause between two flushes of the coalesced deltas. Also read by the scheduler, so keep it ISO-8601.
+         */
+        private Duration flushInterval = Duration.ofMillis(500);
+
+        /**
+         * Maximum number of UPDATE statements sent in one JDBC batch.
+         */
+        private int flushBatchSize = 500;
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Serves name and id lookups from memory; when disabled every lookup goes to the database.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Entries kept per lookup key before the least valuable ones are evicted (W-TinyLFU).
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Upper bound on how long an entry is served, whatever happens to it.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class NameFilter {
+
+        /**
+         * Answers lookups of names that were never registered without going to the database. Only for a single
+         * instance: names registered by other instances are missed until the next rebuild.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Names the filter is sized for when the catalog is smaller than that.
+         */
+        private int expectedNames = 100_000;
+
+        /**
+         * Target false positive probability, i.e. share of unknown names that still reach the database.
+         */
+        private double falsePositiveProbability = 0.01;
+
+        /**
+         * Maximum age of the filter; a rebuild drops the names of deleted beers.
+         */
+        private Duration rebuildInterval = Duration.ofHours(1);
+
+        /**
+         * Deletions after which the filter is rebuilt before its interval is over.
+         */
+        private int rebuildAfterDeletions = 1_000;
+    }
+
+    @Data
+    public static class Alerts {
+
+        /**
+         * Evaluates the stock level of a beer on every change and reports threshold crossings.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fill ratio ({@code quantity / max}) at or below which a beer needs to be reordered.
+         */
+        private double lowStockRatio = 0.2;
+
+        /**
+         * Fill ratio at or above which a beer is overstocked.
+         */
+        private double overstockRatio = 0.9;
+
+        /**
+         * Margin the fill ratio has to move back past a threshold before the alert is cleared, so that stock
+         * hovering around a threshold does not raise it again on every change.
+         */
+        private double hysteresis = 0.05;
+
+        /**
+         * Where alerts are delivered.
+         */
+        private StockAlertSinkType sink = StockAlertSinkType.LOG;
+
+        /**
+         * Endpoint the webhook sink posts to.
+         */
+        private URI webhookUrl = URI.create("http://localhost:8080/stock-alerts");
+
+        /**
+         * Upper bound on one webhook delivery; a slow endpoint never holds up a stock change.
+         */
+        private Duration webhookTimeout = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class StockEvents {
+
+        /**
+         * Most recent changes kept in memory; a client that reconnects further behind than this gets a new snapshot.
+         */
+        private int bufferSize = 65_536;
+
+        /**
+         * Pause between two pushes to the subscribers; changes to the same beer in between are sent once. Also read
+         * by the scheduler, so keep it ISO-8601.
+         */
+        private Duration pushInterval = Duration.ofMillis(250);
+
+        /**
+         * Threads writing to the subscribers' connections.
+         */
+        private int senderThreads = 4;
+
+        /**
+         * Longest a write to one subscriber may block before that subscriber is dropped.
+         */
+        private Duration sendTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Extra senders started, at most, to stand in for those still blocked writing to dropped subscribers.
+         */
+        private int maxSpareSenders = 64;
+
+        /**
+         * Idle time after which a comment line is sent, so that dead connections are noticed.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * Lifetime of one connection; browsers reconnect on their own and resume from the last event id.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Journal {
+
+        /**
+         * Records every accepted stock change as a movement; when disabled no history is kept.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Pause between two snapshots of the beers that moved since the previous one. Also read by the scheduler.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * Results kept in memory before the least valuable ones are evicted.
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * How long a key is honored; a retry arriving later runs the operation again.
+         */
+        private Duration timeToLive = Duration.ofHours(24);
+
+        /**
+         * How long a duplicate waits for the request it duplicates before a conflict is reported.
+         */
+        private Duration waitTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Also writes results to a table, in the transaction of the write, so that they survive a restart and are
+         * seen by other instances.
+         */
+        private boolean persistent = false;
+    }
+
+    @Data
+    public static class CatalogImport {
+
+        /**
+         * Rows read before their names are checked with one query and the new beers inserted in one transaction.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Row errors reported in the progress of one import; rows failing past it are only counted.
+         */
+        private int maxReportedErrors = 1_000;
+    }
+
+    @Data
+    public static class CatalogExport {
+
+        /**
+         * Rows the JDBC driver fetches per round trip while the export cursor is read.
+         */
+        private int fetchSize = 1_000;
+    }
+
+    @Data
+    public static class Reservations {
+
+        /**
+         * How often the expiry wheel advances; a hold is released at most this long after it expires.
+         */
+        private Duration tick = Duration.ofMillis(100);
+
+        /**
+         * Slots of the expiry wheel, rounded up to a power of two.
+         */
+        private int wheelSize = 512;
+
+        /**
+         * How long a hold lasts when the request does not say.
+         */
+        private Duration defaultTimeToLive = Duration.ofMinutes(10);
+
+        /**
+         * Longest hold a request may ask for.
+         */
+        private Duration maxTimeToLive = Duration.ofHours(1);
+
+        /**
+         * How often the table is swept for expired holds left behind by instances that stopped.
+         */
+        private Duration orphanSweepInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Replicas {
+
+        /**
+         * Routes read-only transactions to the replicas below; off, everything uses {@code spring.datasource}.
+         */
+        private boolean enabled = false;
+
+        private List<Replica> dataSources = new ArrayList<>();
+
+        /**
+         * How long a client keeps reading from the primary after it writes.
+         */
+        private Duration stickiness = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username = "sa";
+
+        private String password = "";
+    }
+
+    @Data
+    public static class Outbox {
+
+        /**
+         * Writes an event for every beer creation, deletion and stock change in the transaction of the change.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Where the relay publishes the events.
+         */
+        private OutboxPublisherType publisher = OutboxPublisherType.LOG;
+
+        /**
+         * File the file publisher appends to, one JSON event per line.
+         */
+        private Path file = Path.of("outbox-events.ndjson");
+
+        /**
+         * Pause between two runs of the relay. Also read by the scheduler, so keep it ISO-8601.
+         */
+        private Duration relayInterval = Duration.ofMillis(500);
+
+        /**
+         * Events published, then deleted, together; a run keeps going while it finds full batches.
+         */
+        private int batchSize = 500;
+    }
+
+    @Data
+    public static class Admission {
+
+        /**
+         * Rate limits and caps the concurrency of the mutating endpoints; reads are never limited.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Header naming the calling integration; callers without it are told apart by address.
+         */
+        private String clientHeader = "X-Client-ID";
+
+        /**
+         * Values of the client header given a bucket of their own. Any other value is ignored and the caller is told
+         * apart by address, so rotating the header cannot buy a fresh bucket.
+         */
+        private Set<String> knownClients = new HashSet<>();
+
+        /**
+         * Writes per second a client is allowed on average.
+         */
+        private double clientRate = 50;
+
+        /**
+         * Writes a client may send at once after being idle.
+         */
+        private int clientBurst = 100;
+
+        /**
+         * Writes per second allowed on average to the same beer, whoever sends them.
+         */
+        private double beerRate = 20;
+
+        private int beerBurst = 40;
+
+        /**
+         * Buckets kept per kind, clients or beers, before the least used are dropped.
+         */
+        private long maximumBuckets = 100_000;
+
+        /**
+         * Writes allowed in flight at startup; the limit then adapts between min and max.
+         */
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        /**
+         * Writes slower than this count as a sign of overload and cut the limit.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(250);
+
+        /**
+         * Factor the limit is multiplied by on each sign of overload.
+         */
+        private double backoffRatio = 0.9;
+    }
+}
@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.security.Principal;
+
+/**
+ * Names the caller of a request, for the state kept per client: rate limits and idempotency keys.
+ * <p>
+ * A client is the authenticated principal when there is one. Otherwise {@code X-Client-ID} names it only if the
+ * value is one of the known clients, since anyone can send the header; every other caller is keyed by address.
+ */
+@Component
+public class ClientResolver {
+
+    private final BeerStockProperties.Admission properties;
+
+    @Autowired
+    public ClientResolver(BeerStockProperties properties) {
+        this.properties = properties.getAdmission();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String client = request.getHeader(properties.getClientHeader());
+        if (client != null && properties.getKnownClients().contains(client)) {
+            return "client:" + client;
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,65 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every {@code BeerService} method and every repository call, so that a slow endpoint (already timed as
+ * {@code http.server.requests}) can be split into service, repository and mapping time, and counts the exceptions
+ * that leave the controller by type.
+ */
+@Aspect
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class MetricsAspect {
+
+    public static final String SERVICE_TIMER = "beerstock.service";
+    public static final String REPOSITORY_TIMER = "beerstock.repository";
+    public static final String EXCEPTION_COUNTER = "beerstock.exceptions";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * one.digitalinnovation.beerstock.service.BeerService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint);
+    }
+
+    @Around("execution(* one.digitalinnovation.beerstock.repository.BeerRepository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, joinPoint);
+    }
+
+    @AfterThrowing(pointcut = "execution(public * one.digitalinnovation.beerstock.controller..*(..))", throwing = "exception")
+    public void countException(JoinPoint joinPoint, Throwable exception) {
+        Counter.builder(EXCEPTION_COUNTER)
+                .tag("exception", exception.getClass().getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
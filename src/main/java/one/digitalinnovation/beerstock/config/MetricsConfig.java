@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jpa.HibernateQueryMetrics;
+import one.digitalinnovation.beerstock.service.StockAdjuster;
+import org.hibernate.SessionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Per-query execution counts and times, which is where hot lookups and stock writes show up.
+     */
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory", Collections.emptyList());
+    }
+
+    @Bean
+    public MeterBinder stockContentionMetrics(StockAdjuster stockAdjuster) {
+        return registry -> {
+            FunctionCounter.builder("beerstock.stock.retries", stockAdjuster, StockAdjuster::getRetries)
+                    .description("Optimistic stock writes retried because the row version had moved")
+                    .register(registry);
+            FunctionCounter.builder("beerstock.stock.conflicts", stockAdjuster, StockAdjuster::getConflicts)
+                    .description("Stock adjustments rejected after exhausting their retries")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package one.digitalinnovation.beerstock.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces the single auto-configured {@link DataSource} with one that routes read-only transactions to the
+ * configured replicas and everything else to the primary described by {@code spring.datasource.*}. The primary and
+ * each replica get a pool of their own.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "beerstock.replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, BeerStockProperties properties) {
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        List<DataSource> replicas = properties.getReplicas().getDataSources().stream()
+                .map(replica -> DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(dataSourceProperties.determineDriverClassName())
+                        .url(replica.getUrl())
+                        .username(replica.getUsername())
+                        .password(replica.getPassword())
+                        .build())
+                .collect(Collectors.toList());
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replicas);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(BeerStockProperties properties) {
+        return new ReadYourWritesFilter(properties.getReplicas().getStickiness());
+    }
+}
@@ -0,0 +1,68 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Keeps a client on the primary for a while after it writes, so that it does not read a replica that has not caught
+ * up with its own write yet. A request that is not a GET, HEAD or OPTIONS runs on the primary and answers with a
+ * cookie holding the time until which the client's reads stay there too. Only the request thread is covered:
+ * streamed responses read from another thread go to a replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String PRIMARY_UNTIL_COOKIE = "beerstock-primary-until";
+
+    private final Duration stickiness;
+
+    public ReadYourWritesFilter(Duration stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isRead(request.getMethod()) && !isSticky(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!isRead(request.getMethod())) {
+            Cookie cookie = new Cookie(PRIMARY_UNTIL_COOKIE, String.valueOf(System.currentTimeMillis() + stickiness.toMillis()));
+            cookie.setMaxAge((int) Math.max(1, stickiness.toSeconds()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        boolean previous = ReplicaRouting.requirePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.restore(previous);
+        }
+    }
+
+    private boolean isSticky(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, PRIMARY_UNTIL_COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.config;
+
+/**
+ * Whether the current thread must read from the primary even inside a read-only transaction: for a client that has
+ * just written, so it reads its own writes, and for the startup loads whose in-memory state later writes build on.
+ * Without replicas configured every read already goes to the primary and this has no effect.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public static void onPrimary(Runnable action) {
+        boolean previous = requirePrimary();
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * @return whether the primary was already required, to be handed back to {@link #restore(boolean)}
+     */
+    public static boolean requirePrimary() {
+        boolean previous = isPrimaryRequired();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (!previous) {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+}
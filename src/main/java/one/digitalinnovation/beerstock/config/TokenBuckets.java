@@ -0,0 +1,54 @@
+package one.digitalinnovation.beerstock.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by client or beer, each kept as a single {@code long}: the time at which the bucket would be
+ * full again, as in the generic cell rate algorithm. Taking a token is one compare-and-set on that value; the only
+ * lock is the one the cache takes on the hash bin of the key while a missing bucket is created, which callers of
+ * other keys in that bin wait on. A bucket idle long enough to be full again is no different from a new one, so buckets expire after that
+ * long without use, and at most {@code maximumKeys} are kept.
+ */
+public class TokenBuckets {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long origin = System.nanoTime();
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param ratePerSecond tokens added per second
+     * @param burst         tokens a full bucket holds
+     */
+    public TokenBuckets(double ratePerSecond, int burst, long maximumKeys) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = (Math.max(1, burst) - 1) * intervalNanos;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos + intervalNanos))
+                .build();
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise how long to wait for the next one, in nanoseconds
+     */
+    public long tryAcquire(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong());
+        long now = System.nanoTime() - origin;
+        while (true) {
+            long current = fullAt.get();
+            long theoretical = Math.max(current, now);
+            long wait = theoretical - toleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, theoretical + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves every request, and every async/streaming response, on its own virtual thread instead of Tomcat's bounded
+ * worker pool, so concurrency is capped by the connection pool rather than by {@code server.tomcat.threads.max}.
+ * <p>
+ * The project still targets Java 11, so the executor is looked up reflectively: on a JDK with virtual threads (21+)
+ * the profile takes effect, on older JDKs it logs a warning and the default pool is kept.
+ */
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (executor != null) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need JDK 21+, running on {}; keeping the platform thread pool", Runtime.version());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Binary Jackson format for internal clients that send {@code Accept}/{@code Content-Type:
+     * application/x-jackson-smile}. It is built from the application's mapper builder, so it follows the same
+     * {@code spring.jackson.*} settings and annotations as JSON.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+    }
+
+    /**
+     * Back-references repeated short string values too, not only field names: brands and types repeat across a list.
+     */
+    public static SmileFactory smileFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+}
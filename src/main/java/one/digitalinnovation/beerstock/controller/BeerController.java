@@ -1,41 +1,199 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.ClientResolver;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerLocationsDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.dto.LocationCapacityDTO;
+import one.digitalinnovation.beerstock.dto.LocationStockDTO;
+import one.digitalinnovation.beerstock.dto.LocationTransferDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementPageDTO;
+import one.digitalinnovation.beerstock.dto.StockQuantityAtDTO;
+import one.digitalinnovation.beerstock.enums.BeerCatalogFormat;
 import one.digitalinnovation.beerstock.exceptions.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exceptions.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exceptions.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockExceededException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.exceptions.IdempotencyKeyConflictException;
+import one.digitalinnovation.beerstock.exceptions.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.exceptions.StockLocationNotFoundException;
+import one.digitalinnovation.beerstock.service.BeerCatalogVersion;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.StockChangeStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/beers")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerController {
 
+    private static final String DEFAULT_PAGE_SIZE = "20";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
     private final BeerService beerService;
+    private final StockChangeStream stockChangeStream;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final ClientResolver clientResolver;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Answers {@code If-None-Match} and {@code If-Modified-Since} with 304 from the catalog version, without reading
+     * the list. The tag is taken before the list is read, so a write racing the read only costs the client a refetch.
+     * Without a version, while the stock ledger is enabled, the list is always read and sent without a tag.
+     */
     @GetMapping()
-    public List<BeerDTO> listBeers() {
+    public List<BeerDTO> listBeers(WebRequest request) {
+        Optional<BeerCatalogVersion.Tag> tag = beerCatalogVersion.current();
+        if (tag.isPresent() && request.checkNotModified(tag.get().getETag(), tag.get().getLastModified())) {
+            return null;
+        }
         return beerService.findAll();
     }
 
+    @GetMapping(params = "page")
+    public BeerPageDTO listBeers(@RequestParam int page, @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return beerService.findPage(page, size);
+    }
+
+    @GetMapping(params = "after")
+    public BeerPageDTO listBeersAfter(@RequestParam Long after, @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return beerService.findAfter(after, size);
+    }
+
+    /**
+     * An offset and a cursor name different pages, so asking for both is refused rather than one of them ignored.
+     */
+    @GetMapping(params = {"page", "after"})
+    public BeerPageDTO listBeersAtPageAndAfter() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either page or after can be given, not both");
+    }
+
+    /**
+     * Under {@code /catalog}, with the export, so that no beer name can be shadowed by a fixed path.
+     */
+    @GetMapping("/catalog/search")
+    public BeerPageDTO searchBeers(@Valid BeerSearchDTO beerSearchDTO) {
+        return beerService.search(beerSearchDTO);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamBeers() {
+        return outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)) {
+                beerService.streamAll(beerDTO -> {
+                    try {
+                        writer.write(beerDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * The whole catalog as CSV or NDJSON, streamed from a database cursor; gzipped when the client accepts it.
+     */
+    @GetMapping("/catalog/export")
+    public ResponseEntity<StreamingResponseBody> exportBeers(@RequestParam(defaultValue = "NDJSON") BeerCatalogFormat format) {
+        boolean csv = format == BeerCatalogFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "beers.csv" : "beers.ndjson")
+                        .build()
+                        .toString())
+                .body(outputStream -> beerService.exportBeers(outputStream, format));
+    }
+
+    /**
+     * Server-sent events: a {@code snapshot} of every beer's stock, then {@code changes} with the latest stock of
+     * each beer changed since the previous event. Reconnecting with {@code Last-Event-ID} resumes where it left off.
+     */
+    @GetMapping(value = "/stock/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return stockChangeStream.subscribe(lastEventId);
+    }
+
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public BeerDTO findByName(@PathVariable String name, WebRequest request) throws BeerNotFoundException {
+        BeerDTO beerDTO = beerService.findByName(name);
+        if (request.checkNotModified(eTag(beerDTO))) {
+            return null;
+        }
+        return beerDTO;
+    }
+
+    @GetMapping("/{id}/movements")
+    public StockMovementPageDTO findMovements(@PathVariable Long id,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                              @RequestParam(required = false) Long after,
+                                              @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return beerService.findMovements(id, from, to, after, size);
+    }
+
+    @GetMapping("/{id}/stock")
+    public StockQuantityAtDTO findQuantityAt(@PathVariable Long id,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return beerService.findQuantityAt(id, at);
     }
 
     @PostMapping()
     @ResponseStatus(HttpStatus.CREATED)
-    public BeerDTO createBeer(@RequestBody @Valid BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
-        return beerService.createBeer(beerDTO);
+    public BeerDTO createBeer(@RequestBody @Valid BeerDTO beerDTO, HttpServletRequest request,
+                              @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws BeerAlreadyRegisteredException, IdempotencyKeyConflictException {
+        return beerService.createBeer(beerDTO, clientResolver.resolve(request), idempotencyKey);
+    }
+
+    /**
+     * Imports a CSV or NDJSON catalog as it is uploaded, answering with one NDJSON progress line per chunk.
+     */
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importCsv(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        importBeers(request, response, BeerCatalogFormat.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        importBeers(request, response, BeerCatalogFormat.NDJSON);
     }
 
     @DeleteMapping("/{id}")
@@ -46,13 +204,90 @@ public class BeerController {
 
     @PatchMapping("/{id}/increment")
     @ResponseStatus(HttpStatus.OK)
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO, HttpServletRequest request,
+                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException, IdempotencyKeyConflictException {
+        return beerService.increment(id, quantityDTO.getQuantity(), clientResolver.resolve(request), idempotencyKey);
     }
 
     @PatchMapping("/{id}/decrement")
     @ResponseStatus(HttpStatus.OK)
-    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockLessThanZeroException {
-        return beerService.decrement(id, quantityDTO.getQuantity());
+    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO, HttpServletRequest request,
+                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws BeerNotFoundException, BeerStockLessThanZeroException, BeerStockConflictException, IdempotencyKeyConflictException {
+        return beerService.decrement(id, quantityDTO.getQuantity(), clientResolver.resolve(request), idempotencyKey);
+    }
+
+    @GetMapping("/{id}/locations")
+    public BeerLocationsDTO findLocations(@PathVariable Long id) throws BeerNotFoundException {
+        return beerService.findLocations(id);
+    }
+
+    @PutMapping("/{id}/locations/{location}")
+    public LocationStockDTO setLocationCapacity(@PathVariable Long id, @PathVariable String location,
+                                                @RequestBody @Valid LocationCapacityDTO locationCapacityDTO) throws BeerNotFoundException, StockLocationNotFoundException, BeerStockExceededException {
+        return beerService.setLocationCapacity(id, location, locationCapacityDTO.getMax());
+    }
+
+    @PatchMapping("/{id}/locations/{location}/increment")
+    public LocationStockDTO incrementAt(@PathVariable Long id, @PathVariable String location,
+                                        @RequestBody @Valid QuantityDTO quantityDTO) throws StockLocationNotFoundException, BeerStockExceededException {
+        return beerService.incrementAt(id, location, quantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/{id}/locations/{location}/decrement")
+    public LocationStockDTO decrementAt(@PathVariable Long id, @PathVariable String location,
+                                        @RequestBody @Valid QuantityDTO quantityDTO) throws StockLocationNotFoundException, BeerStockLessThanZeroException {
+        return beerService.decrementAt(id, location, quantityDTO.getQuantity());
+    }
+
+    @PostMapping("/{id}/locations/transfer")
+    public BeerLocationsDTO transfer(@PathVariable Long id, @RequestBody @Valid LocationTransferDTO locationTransferDTO) throws StockLocationNotFoundException, BeerStockLessThanZeroException, BeerStockExceededException {
+        return beerService.transfer(id, locationTransferDTO);
+    }
+
+    @PostMapping("/{id}/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationDTO reserve(@PathVariable Long id, @RequestBody @Valid ReservationRequestDTO reservationRequestDTO) throws BeerNotFoundException, BeerStockLessThanZeroException {
+        return beerService.reserve(id, reservationRequestDTO);
+    }
+
+    @PostMapping("/reservations/{reservationId}/commit")
+    public BeerDTO commitReservation(@PathVariable UUID reservationId) throws ReservationNotFoundException {
+        return beerService.commitReservation(reservationId);
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseReservation(@PathVariable UUID reservationId) throws ReservationNotFoundException {
+        beerService.releaseReservation(reservationId);
+    }
+
+    @PatchMapping("/stock")
+    @ResponseStatus(HttpStatus.OK)
+    public BulkStockAdjustmentResultDTO adjustStock(@RequestBody @Valid BulkStockAdjustmentDTO bulkStockAdjustmentDTO) throws BeerStockConflictException {
+        return beerService.adjustStock(bulkStockAdjustmentDTO);
+    }
+
+    private void importBeers(HttpServletRequest request, HttpServletResponse response, BeerCatalogFormat format) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        Charset charset = request.getCharacterEncoding() == null ? StandardCharsets.UTF_8 : Charset.forName(request.getCharacterEncoding());
+        try (Reader source = new InputStreamReader(request.getInputStream(), charset);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(response.getOutputStream())) {
+            beerService.importBeers(source, format, progress -> {
+                try {
+                    writer.write(progress);
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Weak tag of a single beer: its row version, plus the quantity since the stock ledger can change it between
+     * versions.
+     */
+    private static String eTag(BeerDTO beerDTO) {
+        return "W/\"" + beerDTO.getId() + "-" + beerDTO.getVersion() + "-" + beerDTO.getQuantity() + "\"";
     }
 }
@@ -1,5 +1,6 @@
 package one.digitalinnovation.beerstock.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -39,4 +40,7 @@ public class BeerDTO {
     @NotNull
     @Enumerated(EnumType.STRING)
     private BeerType type;
+
+    @JsonIgnore
+    private Long version;
 }
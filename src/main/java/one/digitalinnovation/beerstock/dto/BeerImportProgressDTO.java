@@ -0,0 +1,28 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Running totals of an import, with the row errors found since the previous progress.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerImportProgressDTO {
+
+    private long rows;
+
+    private long imported;
+
+    private long failed;
+
+    private List<BeerImportErrorDTO> errors;
+
+    private boolean done;
+}
@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerLocationsDTO {
+
+    private Long beerId;
+
+    /**
+     * Sum of the quantities at every location, taken from the same read as the locations below.
+     */
+    private long total;
+
+    private List<LocationStockDTO> locations;
+}
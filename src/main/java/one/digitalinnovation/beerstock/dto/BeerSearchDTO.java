@@ -0,0 +1,65 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.data.domain.Sort;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * Search filters bound from query parameters; absent filters match every beer.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerSearchDTO {
+
+    @Size(min = 1, max = 200)
+    private String brand;
+
+    private BeerType type;
+
+    @Min(0)
+    private Integer minQuantity;
+
+    @Min(0)
+    private Integer maxQuantity;
+
+    /**
+     * Lower bound of {@code quantity / max}, from 0 to 1.
+     */
+    @DecimalMin("0")
+    @DecimalMax("1")
+    private Double minFillRatio;
+
+    /**
+     * Upper bound of {@code quantity / max}, from 0 to 1.
+     */
+    @DecimalMin("0")
+    @DecimalMax("1")
+    private Double maxFillRatio;
+
+    @NotNull
+    @Pattern(regexp = "id|name|brand|type|max|quantity")
+    @Builder.Default
+    private String sort = "id";
+
+    @NotNull
+    @Builder.Default
+    private Sort.Direction direction = Sort.Direction.ASC;
+
+    @Min(0)
+    private int page;
+
+    @Builder.Default
+    private int size = 20;
+}
@@ -0,0 +1,29 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BulkMode;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockAdjustmentDTO {
+
+    @NotNull
+    @Builder.Default
+    private BulkMode mode = BulkMode.ALL_OR_NOTHING;
+
+    @Valid
+    @NotEmpty
+    @Size(max = 1000)
+    private List<StockOperationDTO> operations;
+}
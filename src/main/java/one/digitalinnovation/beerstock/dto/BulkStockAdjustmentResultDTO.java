@@ -0,0 +1,22 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BulkMode;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockAdjustmentResultDTO {
+
+    private BulkMode mode;
+
+    private int applied;
+
+    private List<StockOperationResultDTO> results;
+}
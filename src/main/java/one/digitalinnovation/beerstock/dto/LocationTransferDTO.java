@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationTransferDTO {
+
+    @NotBlank
+    @Size(max = 50)
+    private String from;
+
+    @NotBlank
+    @Size(max = 50)
+    private String to;
+
+    @NotNull
+    @Min(1)
+    @Max(100)
+    private Integer quantity;
+}
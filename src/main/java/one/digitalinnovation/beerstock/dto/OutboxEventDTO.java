@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.OutboxEventType;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventDTO {
+
+    /**
+     * Increases with every event of a beer; a consumer can drop the redeliveries it has already seen with it.
+     */
+    private Long id;
+
+    private Long beerId;
+
+    /**
+     * Location whose stock or max changed; absent on the events of the beer itself.
+     */
+    private String location;
+
+    private OutboxEventType type;
+
+    private int delta;
+
+    /**
+     * Quantity of the beer, or of the location, right after the change; 0 once deleted, the new max on a capacity
+     * change.
+     */
+    private int quantity;
+
+    private Instant occurredAt;
+
+    private String requestId;
+}
@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+
+    private UUID id;
+
+    private Long beerId;
+
+    private int quantity;
+
+    /**
+     * When the hold is released if it has not been committed or released before.
+     */
+    private Instant expiresAt;
+}
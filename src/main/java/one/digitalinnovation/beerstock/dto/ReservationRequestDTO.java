@@ -0,0 +1,28 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequestDTO {
+
+    @NotNull
+    @Min(1)
+    @Max(100)
+    private Integer quantity;
+
+    /**
+     * How long the stock is held, as an ISO-8601 duration; the configured default when absent.
+     */
+    private Duration timeToLive;
+}
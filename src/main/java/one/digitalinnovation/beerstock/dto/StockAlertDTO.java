@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockLevel;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDTO {
+
+    private Long beerId;
+
+    private String name;
+
+    private String brand;
+
+    private StockLevel level;
+
+    private StockLevel previousLevel;
+
+    private int quantity;
+
+    private int max;
+
+    private Instant raisedAt;
+}
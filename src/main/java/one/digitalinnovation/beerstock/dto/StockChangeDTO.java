@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChangeDTO {
+
+    private Long id;
+
+    private int quantity;
+
+    private int max;
+
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean deleted;
+}
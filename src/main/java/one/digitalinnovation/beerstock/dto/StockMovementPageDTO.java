@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementPageDTO {
+
+    private List<StockMovementDTO> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    /**
+     * Id to send as {@code after} to fetch the next page, absent on the last page.
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,22 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockOperationStatus;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockOperationResultDTO {
+
+    private Long id;
+
+    private int delta;
+
+    private StockOperationStatus status;
+
+    private Integer quantity;
+}
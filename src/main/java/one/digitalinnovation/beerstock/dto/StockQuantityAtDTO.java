@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockQuantityAtDTO {
+
+    private Long beerId;
+
+    private Instant at;
+
+    private int quantity;
+
+    /**
+     * Movements replayed on top of the latest snapshot to get the quantity.
+     */
+    private int replayedMovements;
+}
@@ -9,12 +9,20 @@ import javax.persistence.*;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_beer_brand_type_quantity", columnList = "brand, type, quantity"),
+        @Index(name = "idx_beer_type_quantity", columnList = "type, quantity")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Beer {
 
+    /**
+     * Taken from a sequence in blocks of 50, so that inserts need no round trip for their id and can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_seq")
+    @SequenceGenerator(name = "beer_seq", sequenceName = "beer_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -32,4 +40,13 @@ public class Beer {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BeerType type;
+
+    @Version
+    private Long version;
+
+    /**
+     * Units held by open reservations: part of {@code quantity}, but no longer available to decrement.
+     */
+    @Column(nullable = false)
+    private int reserved;
 }
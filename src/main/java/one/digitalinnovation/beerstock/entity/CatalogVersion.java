@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * The single row holding the version of the beer list, moved forward in the transaction of every write to it.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    public static final Long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private Instant modifiedAt;
+}
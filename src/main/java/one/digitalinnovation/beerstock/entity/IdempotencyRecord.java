@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Result of a request made with an idempotency key, kept so that it can be replayed after a restart.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_record_created_at", columnList = "createdAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(nullable = false, length = 1000)
+    private String fingerprint;
+
+    @Lob
+    @Column(nullable = false)
+    private String response;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Stock of one beer at one location. Each location has its own row, so writes to different locations of a beer never
+ * wait on each other.
+ */
+@Data
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_location_stock_beer_location", columnNames = {"beerId", "location"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false, length = 50)
+    private String location;
+
+    @Column(nullable = false)
+    private int max;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Version
+    private Long version;
+}
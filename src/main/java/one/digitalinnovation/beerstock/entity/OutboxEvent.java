@@ -0,0 +1,48 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.OutboxEventType;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * An event waiting to be published, inserted in the transaction of the change it describes and deleted once the
+ * relay has handed it to the publisher.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    /**
+     * Set on location events only.
+     */
+    @Column(length = 50)
+    private String location;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private OutboxEventType type;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    private String requestId;
+}
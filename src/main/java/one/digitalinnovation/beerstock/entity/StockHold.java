@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A hold on stock, written with the change to the beer's {@code reserved} column so that the holds of an instance
+ * that stopped can be given back once they expire, without touching the holds of the instances still running.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_stock_hold_expires_at", columnList = "expiresAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHold {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
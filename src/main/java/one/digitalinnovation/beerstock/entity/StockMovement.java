@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * One accepted stock change. Rows are only ever inserted, by the stock journal in the transaction of the change.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_stock_movement_beer_occurred_at", columnList = "beerId, occurredAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    private String requestId;
+}
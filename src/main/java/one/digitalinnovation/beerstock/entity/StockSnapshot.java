@@ -0,0 +1,36 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Quantity of a beer right after one of its movements, so that rebuilding the stock at a point in time only needs
+ * the movements recorded after the latest snapshot.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "idx_stock_snapshot_beer_taken_at", columnList = "beerId, takenAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false)
+    private Long movementId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private Instant takenAt;
+}
@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BeerCatalogFormat {
+
+    CSV("Header row naming the columns (id, name, brand, max, quantity, type), then one beer per line"),
+    NDJSON("One beer JSON object per line");
+
+    private final String description;
+}
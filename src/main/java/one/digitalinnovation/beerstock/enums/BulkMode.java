@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BulkMode {
+
+    ALL_OR_NOTHING("Nothing is written unless every operation is valid"),
+    BEST_EFFORT("Valid operations are written, invalid ones are reported");
+
+    private final String description;
+}
@@ -0,0 +1,17 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum OutboxEventType {
+
+    CREATED("Beer registered, with its initial quantity"),
+    DELETED("Beer deleted"),
+    STOCK_CHANGED("Stock of the beer changed by the delta"),
+    LOCATION_STOCK_CHANGED("Stock of the beer at the location changed by the delta"),
+    LOCATION_CAPACITY_CHANGED("Max of the beer at the location set, to the quantity");
+
+    private final String description;
+}
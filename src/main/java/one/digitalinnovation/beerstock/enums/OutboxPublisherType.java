@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum OutboxPublisherType {
+
+    LOG("Written to the application log"),
+    FILE("Appended as NDJSON to a file"),
+    EVENT("Published as application events");
+
+    private final String description;
+}
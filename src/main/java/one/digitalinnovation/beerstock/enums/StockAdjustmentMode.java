@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAdjustmentMode {
+
+    CONDITIONAL("Single conditional update"),
+    OPTIMISTIC("Versioned update with bounded retry");
+
+    private final String description;
+}
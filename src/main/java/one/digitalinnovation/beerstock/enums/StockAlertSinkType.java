@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAlertSinkType {
+
+    LOG("Written to the application log"),
+    EVENT("Published as an application event"),
+    WEBHOOK("Posted as JSON to a webhook URL");
+
+    private final String description;
+}
@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockLevel {
+
+    NORMAL("Between the reorder threshold and the overstock threshold"),
+    LOW("At or below the reorder threshold"),
+    OVERSTOCK("At or above the overstock threshold");
+
+    private final String description;
+}
@@ -0,0 +1,17 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockOperationStatus {
+
+    APPLIED("Applied"),
+    SKIPPED("Valid, but not applied because another operation failed"),
+    NOT_FOUND("Beer not found"),
+    EXCEEDS_MAX("Exceeds the max stock capacity"),
+    LESS_THAN_ZERO("Makes stock capacity less than 0");
+
+    private final String description;
+}
@@ -3,13 +3,16 @@ package one.digitalinnovation.beerstock.exceptions;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Expected on every lookup of an unknown beer, so it skips stack trace capture.
+ */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class BeerNotFoundException extends Exception {
     public BeerNotFoundException(String beerName) {
-        super(String.format("Beer with name %s not found in the system.", beerName));
+        super(String.format("Beer with name %s not found in the system.", beerName), null, false, false);
     }
 
     public BeerNotFoundException(Long id) {
-        super(String.format("Beer with id %s not found in the system.", id));
+        super(String.format("Beer with id %s not found in the system.", id), null, false, false);
     }
 }
@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerStockConflictException extends Exception {
+
+    public BeerStockConflictException(Long id, int attempts) {
+        super(String.format("Beer with %s ID stock was concurrently modified, giving up after %s attempts", id, attempts));
+    }
+
+    public BeerStockConflictException(int attempts) {
+        super(String.format("Beers stock was concurrently modified, giving up after %s attempts", attempts));
+    }
+}
@@ -9,4 +9,8 @@ public class BeerStockExceededException extends Exception {
     public BeerStockExceededException(Long id, int quantityToIncrement) {
         super(String.format("Beers with %s ID to increment informed exceeds the max stock capacity: %s", id, quantityToIncrement));
     }
+
+    public BeerStockExceededException(Long id, String location, int quantityToIncrement) {
+        super(String.format("Beers with %s ID to increment informed exceeds the max stock capacity at location %s: %s", id, location, quantityToIncrement));
+    }
 }
\ No newline at end of file
@@ -9,4 +9,12 @@ public class BeerStockLessThanZeroException extends Exception {
     public BeerStockLessThanZeroException(Long id) {
         super(String.format("Beers with %s ID to decrement informed make stock capacity less than 0", id));
     }
+
+    public BeerStockLessThanZeroException(Long id, String location) {
+        super(String.format("Beers with %s ID to decrement informed make stock capacity less than 0 at location %s", id, location));
+    }
+
+    public BeerStockLessThanZeroException(Long id, int quantityToReserve) {
+        super(String.format("Beers with %s ID to reserve informed exceeds the available stock: %s", id, quantityToReserve));
+    }
 }
@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyConflictException extends Exception {
+
+    public IdempotencyKeyConflictException(String idempotencyKey) {
+        super(String.format("Idempotency key %s was already used for a different request", idempotencyKey));
+    }
+
+    public IdempotencyKeyConflictException(String idempotencyKey, Duration waited) {
+        super(String.format("Request with idempotency key %s is still in progress after %s", idempotencyKey, waited));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends Exception {
+
+    public RateLimitExceededException(String limited) {
+        super(String.format("Too many stock writes for %s, retry later.", limited));
+    }
+}
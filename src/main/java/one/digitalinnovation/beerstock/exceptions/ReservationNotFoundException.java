@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservationNotFoundException extends Exception {
+
+    public ReservationNotFoundException(UUID id) {
+        super(String.format("Reservation with id %s not found, or already committed, released or expired.", id));
+    }
+}
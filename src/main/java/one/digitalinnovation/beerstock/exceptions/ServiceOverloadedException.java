@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends Exception {
+
+    public ServiceOverloadedException(int limit) {
+        super(String.format("Already handling %s writes, retry later.", limit));
+    }
+}
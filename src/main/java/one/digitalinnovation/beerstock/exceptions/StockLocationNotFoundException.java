@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class StockLocationNotFoundException extends Exception {
+
+    public StockLocationNotFoundException(Long id, String location) {
+        super(String.format("Beer with id %s has no stock at location %s.", id, location));
+    }
+}
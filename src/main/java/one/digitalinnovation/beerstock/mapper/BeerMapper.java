@@ -3,6 +3,7 @@ package one.digitalinnovation.beerstock.mapper;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -10,7 +11,11 @@ public interface BeerMapper {
 
     BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "reserved", ignore = true)
     Beer toModel(BeerDTO beerDTO);
 
     BeerDTO toDTO(Beer beer);
+
+    BeerDTO copy(BeerDTO beerDTO);
 }
@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.LocationStockDTO;
+import one.digitalinnovation.beerstock.entity.LocationStock;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface LocationStockMapper {
+
+    LocationStockMapper INSTANCE = Mappers.getMapper(LocationStockMapper.class);
+
+    LocationStockDTO toDTO(LocationStock locationStock);
+}
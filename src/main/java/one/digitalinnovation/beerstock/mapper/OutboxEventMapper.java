@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.OutboxEventDTO;
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface OutboxEventMapper {
+
+    OutboxEventMapper INSTANCE = Mappers.getMapper(OutboxEventMapper.class);
+
+    OutboxEventDTO toDTO(OutboxEvent outboxEvent);
+}
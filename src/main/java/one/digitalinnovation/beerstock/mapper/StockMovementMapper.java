@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.StockMovementDTO;
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+public interface StockMovementMapper {
+
+    StockMovementMapper INSTANCE = Mappers.getMapper(StockMovementMapper.class);
+
+    StockMovementDTO toDTO(StockMovement stockMovement);
+}
@@ -1,13 +1,96 @@
 package one.digitalinnovation.beerstock.repository;
 
+import one.digitalinnovation.beerstock.dto.StockChangeDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+public interface BeerRepository extends JpaRepository<Beer, Long>, BeerSearchRepository {
 
     Optional<Beer> findByName(String name);
+
+    Slice<Beer> findAllBy(Pageable pageable);
+
+    List<Beer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Walks the whole table in id order with a forward-only cursor; must be consumed inside a transaction and closed.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select b from Beer b order by b.id")
+    Stream<Beer> streamAll();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select b.name from Beer b")
+    Stream<String> streamAllNames();
+
+    @Query("select b.name from Beer b where b.name in :names")
+    List<String> findNamesIn(@Param("names") Collection<String> names);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new one.digitalinnovation.beerstock.dto.StockChangeDTO(b.id, b.quantity, b.max, false) from Beer b")
+    Stream<StockChangeDTO> streamAllStock();
+
+    /**
+     * Applies the delta in a single statement, only when the resulting quantity stays within {@code reserved..max}.
+     *
+     * @return the number of updated rows: 1 when applied, 0 when the beer is missing or the bound was hit
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity + :delta, b.version = b.version + 1 " +
+            "where b.id = :id and b.quantity + :delta >= b.reserved and b.quantity + :delta <= b.max")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Applies the delta only when the row still carries the version read by the caller and the resulting quantity
+     * stays within {@code reserved..max}, so a check made on a stale read can never let a write cross a bound.
+     *
+     * @return 1 when applied, 0 when another writer got there first or the bound was hit
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity + :delta, b.version = b.version + 1 " +
+            "where b.id = :id and b.version = :version and b.quantity + :delta >= b.reserved and b.quantity + :delta <= b.max")
+    int adjustQuantityIfVersion(@Param("id") Long id, @Param("delta") int delta, @Param("version") Long version);
+
+    /**
+     * Holds the quantity when that much is still available, that is not already reserved.
+     *
+     * @return 1 when held, 0 when the beer is missing or too little is available
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.reserved = b.reserved + :quantity, b.version = b.version + 1 " +
+            "where b.id = :id and b.quantity - b.reserved >= :quantity")
+    int reserve(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Gives the held quantity back to the available stock.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.reserved = b.reserved - :quantity, b.version = b.version + 1 " +
+            "where b.id = :id and b.reserved >= :quantity")
+    int release(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Turns the held quantity into a decrement: quantity and reserved both go down by it.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantity = b.quantity - :quantity, b.reserved = b.reserved - :quantity, b.version = b.version + 1 " +
+            "where b.id = :id and b.reserved >= :quantity")
+    int commitReserved(@Param("id") Long id, @Param("quantity") int quantity);
 }
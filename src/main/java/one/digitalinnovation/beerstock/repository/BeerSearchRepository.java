@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BeerSearchRepository {
+
+    /**
+     * Like {@code JpaSpecificationExecutor#findAll(Specification, Pageable)} but without the count query, which
+     * would scan every matching row just to report a total.
+     */
+    Slice<Beer> search(Specification<Beer> specification, Pageable pageable);
+}
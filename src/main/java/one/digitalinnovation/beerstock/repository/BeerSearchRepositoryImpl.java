@@ -0,0 +1,39 @@
+package one.digitalinnovation.beerstock.repository;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+class BeerSearchRepositoryImpl implements BeerSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<Beer> search(Specification<Beer> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Beer> query = criteriaBuilder.createQuery(Beer.class);
+        Root<Beer> root = query.from(Beer.class);
+        query.where(specification.toPredicate(root, query, criteriaBuilder));
+        query.orderBy(toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        List<Beer> beers = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = beers.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? beers.subList(0, pageable.getPageSize()) : beers, pageable, hasNext);
+    }
+}
@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria for the beer search. Brand, type and quantity are served by the composite indexes declared on
+ * {@link Beer}; the fill ratio is compared as {@code quantity <= ratio * max}, a residual filter over the rows the
+ * index already narrowed down.
+ */
+public final class BeerSpecifications {
+
+    private BeerSpecifications() {
+    }
+
+    public static Specification<Beer> matching(BeerSearchDTO criteria) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getBrand() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("brand"), criteria.getBrand()));
+            }
+            if (criteria.getType() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("type"), criteria.getType()));
+            }
+            if (criteria.getMinQuantity() != null) {
+                predicates.add(criteriaBuilder.ge(root.get("quantity"), criteria.getMinQuantity()));
+            }
+            if (criteria.getMaxQuantity() != null) {
+                predicates.add(criteriaBuilder.le(root.get("quantity"), criteria.getMaxQuantity()));
+            }
+            if (criteria.getMinFillRatio() != null) {
+                predicates.add(criteriaBuilder.ge(root.get("quantity"), criteriaBuilder.prod(root.<Integer>get("max"), criteria.getMinFillRatio())));
+            }
+            if (criteria.getMaxFillRatio() != null) {
+                predicates.add(criteriaBuilder.le(root.get("quantity"), criteriaBuilder.prod(root.<Integer>get("max"), criteria.getMaxFillRatio())));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+
+    /**
+     * Moves the version forward, stamped with the clock of the database so that every instance agrees on the order.
+     *
+     * @return 1, or 0 when the row is missing
+     */
+    @Modifying
+    @Query("update CatalogVersion v set v.version = v.version + 1, v.modifiedAt = current_timestamp where v.id = :id")
+    int bump(@Param("id") Long id);
+}
@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.LocationStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LocationStockRepository extends JpaRepository<LocationStock, Long> {
+
+    List<LocationStock> findByBeerIdOrderByLocation(Long beerId);
+
+    Optional<LocationStock> findByBeerIdAndLocation(Long beerId, String location);
+
+    /**
+     * Applies the delta in a single statement, only when the location's quantity stays within {@code 0..max}.
+     *
+     * @return 1 when applied, 0 when the location is missing or the bound was hit
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update LocationStock s set s.quantity = s.quantity + :delta, s.version = s.version + 1 " +
+            "where s.beerId = :beerId and s.location = :location and s.quantity + :delta >= 0 and s.quantity + :delta <= s.max")
+    int adjustQuantity(@Param("beerId") Long beerId, @Param("location") String location, @Param("delta") int delta);
+
+    /**
+     * Changes the max only when the location's current quantity still fits under it.
+     *
+     * @return 1 when changed, 0 when the location is missing or holds more than the new max
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update LocationStock s set s.max = :max, s.version = s.version + 1 " +
+            "where s.beerId = :beerId and s.location = :location and s.quantity <= :max")
+    int updateMax(@Param("beerId") Long beerId, @Param("location") String location, @Param("max") int max);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LocationStock s where s.beerId = :beerId")
+    int deleteByBeerId(@Param("beerId") Long beerId);
+}
@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.StockHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockHoldRepository extends JpaRepository<StockHold, UUID> {
+
+    List<StockHold> findByExpiresAtBefore(Instant before);
+
+    /**
+     * Removes the hold; only the caller that gets 1 back may move its quantity out of {@code reserved}.
+     */
+    @Modifying
+    @Query("delete from StockHold h where h.id = :id")
+    int deleteHold(@Param("id") UUID id);
+}
@@ -0,0 +1,34 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    @Query("select m from StockMovement m where m.beerId = :beerId and m.occurredAt >= :from and m.occurredAt < :to " +
+            "and m.id > :after order by m.id")
+    List<StockMovement> findHistory(@Param("beerId") Long beerId, @Param("from") Instant from, @Param("to") Instant to,
+                                    @Param("after") Long after, Pageable pageable);
+
+    /**
+     * Count and sum of the deltas of the movements of a beer recorded after the given movement, up to a point in time.
+     */
+    @Query("select count(m) as count, coalesce(sum(m.delta), 0) as delta from StockMovement m " +
+            "where m.beerId = :beerId and m.id > :after and m.occurredAt <= :at")
+    MovementTotal sumAfter(@Param("beerId") Long beerId, @Param("after") Long after, @Param("at") Instant at);
+
+    interface MovementTotal {
+
+        long getCount();
+
+        long getDelta();
+    }
+}
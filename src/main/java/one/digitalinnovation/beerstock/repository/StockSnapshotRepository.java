@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    Optional<StockSnapshot> findFirstByBeerIdAndTakenAtLessThanEqualOrderByTakenAtDescMovementIdDesc(Long beerId, Instant at);
+
+    @Query("select coalesce(max(s.movementId), 0) from StockSnapshot s")
+    long findLastMovementId();
+}
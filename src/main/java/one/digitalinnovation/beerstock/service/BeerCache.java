@@ -0,0 +1,121 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Local read-through cache of beers by name and by id.
+ * <p>
+ * Entries carry the {@code @Version} of the row they were built from and an older version never replaces a newer
+ * one, so a slow reader cannot put back a row that a writer already replaced. Deletions leave a tombstone that only
+ * {@link #put(Beer) a newly created beer} can overwrite. Writes made inside a transaction reach the cache after commit.
+ */
+@Component
+public class BeerCache {
+
+    public static final String BEERS_BY_NAME = "beersByName";
+    public static final String BEERS_BY_ID = "beersById";
+
+    private final boolean enabled;
+    private final Cache<String, Entry> beersByName;
+    private final Cache<Long, Entry> beersById;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    public BeerCache(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        BeerStockProperties.Cache cacheProperties = properties.getCache();
+        this.enabled = cacheProperties.isEnabled();
+        this.beersByName = CaffeineCacheMetrics.monitor(meterRegistry, build(cacheProperties), BEERS_BY_NAME);
+        this.beersById = CaffeineCacheMetrics.monitor(meterRegistry, build(cacheProperties), BEERS_BY_ID);
+    }
+
+    public Optional<BeerDTO> findByName(String name) {
+        return enabled ? read(beersByName.getIfPresent(name)) : Optional.empty();
+    }
+
+    public Optional<BeerDTO> findById(Long id) {
+        return enabled ? read(beersById.getIfPresent(id)) : Optional.empty();
+    }
+
+    /**
+     * Caches the beer, unless a newer version of it is already cached.
+     */
+    public void put(Beer beer) {
+        afterCommit(() -> write(new Entry(beerMapper.toDTO(beer), version(beer), false)));
+    }
+
+    /**
+     * Caches a beer that was just created, replacing the tombstone of a deleted beer with the same name.
+     */
+    public void putCreated(Beer beer) {
+        afterCommit(() -> {
+            Entry entry = new Entry(beerMapper.toDTO(beer), version(beer), false);
+            beersByName.put(beer.getName(), entry);
+            beersById.put(beer.getId(), entry);
+        });
+    }
+
+    public void evict(Beer beer) {
+        afterCommit(() -> write(new Entry(beerMapper.toDTO(beer), Long.MAX_VALUE, true)));
+    }
+
+    private void write(Entry entry) {
+        beersByName.asMap().merge(entry.beer.getName(), entry, BeerCache::newest);
+        beersById.asMap().merge(entry.beer.getId(), entry, BeerCache::newest);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (enabled) {
+            AfterCommit.run(action);
+        }
+    }
+
+    private Optional<BeerDTO> read(Entry entry) {
+        if (entry == null || entry.deleted) {
+            return Optional.empty();
+        }
+        return Optional.of(beerMapper.copy(entry.beer));
+    }
+
+    /**
+     * Picks the entry of the most recent row: a later id wins (name reused after a delete), then a later version.
+     */
+    private static Entry newest(Entry cached, Entry candidate) {
+        int byId = Long.compare(candidate.beer.getId(), cached.beer.getId());
+        if (byId != 0) {
+            return byId > 0 ? candidate : cached;
+        }
+        return candidate.version >= cached.version ? candidate : cached;
+    }
+
+    private static long version(Beer beer) {
+        return beer.getVersion() == null ? 0L : beer.getVersion();
+    }
+
+    private static <K> Cache<K, Entry> build(BeerStockProperties.Cache cacheProperties) {
+        return Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .expireAfterWrite(cacheProperties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+
+        private final BeerDTO beer;
+        private final long version;
+        private final boolean deleted;
+    }
+}
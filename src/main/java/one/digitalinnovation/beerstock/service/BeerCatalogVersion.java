@@ -0,0 +1,89 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.ReplicaRouting;
+import one.digitalinnovation.beerstock.entity.CatalogVersion;
+import one.digitalinnovation.beerstock.repository.CatalogVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Version of the whole beer list, moved forward by every write to it, so that a conditional request for the list is
+ * answered from here instead of reading it.
+ * <p>
+ * The version is a row bumped in the transaction of the write, so every instance behind the load balancer hands out
+ * the same tag for the same list, and a tag never runs ahead of a change that is not committed yet. Writers bump it
+ * last, right before their commit, so its row lock is held only for the commit itself. The tag also carries the time
+ * of the last bump, so tags handed out before the database was recreated never match. Last-Modified has second
+ * precision, so changes within the second of the previous response are only told apart by the ETag. The tag is weak,
+ * as the body may be sent compressed.
+ */
+@Component
+public class BeerCatalogVersion {
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final BeerStockProperties.Ledger ledgerProperties;
+
+    @Autowired
+    public BeerCatalogVersion(CatalogVersionRepository catalogVersionRepository, BeerStockProperties properties) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.ledgerProperties = properties.getStock().getLedger();
+    }
+
+    /**
+     * Inserts the row when this is the first instance on the database; another instance inserting it at the same
+     * time is as good. Checked on the primary, as a replica may not have the row, or the table, yet.
+     */
+    @PostConstruct
+    public void init() {
+        ReplicaRouting.onPrimary(() -> {
+            if (catalogVersionRepository.existsById(CatalogVersion.ID)) {
+                return;
+            }
+            try {
+                catalogVersionRepository.saveAndFlush(new CatalogVersion(CatalogVersion.ID, 0, Instant.now()));
+            } catch (DataIntegrityViolationException e) {
+                // inserted by another instance
+            }
+        });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump() {
+        catalogVersionRepository.bump(CatalogVersion.ID);
+    }
+
+    /**
+     * @return the current tag, or empty while the stock ledger is enabled: the list then shows quantities only held
+     * in the memory of this instance, which no shared version can describe
+     */
+    public Optional<Tag> current() {
+        if (ledgerProperties.isEnabled()) {
+            return Optional.empty();
+        }
+        return catalogVersionRepository.findById(CatalogVersion.ID).map(version -> new Tag(
+                "W/\"" + version.getVersion() + "-" + version.getModifiedAt().toEpochMilli() + "\"",
+                version.getModifiedAt().toEpochMilli()));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Tag {
+
+        private final String eTag;
+
+        /**
+         * Epoch milliseconds of the last write.
+         */
+        private final long lastModified;
+    }
+}
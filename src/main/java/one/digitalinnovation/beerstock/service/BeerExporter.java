@@ -0,0 +1,140 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerCatalogFormat;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the whole catalog from a forward-only, read-only JDBC cursor. Each row is written as soon as it is read and
+ * nothing keeps it, neither a list nor a persistence context, so memory stays flat whatever the size of the table.
+ * Quantities still waiting in the stock ledger are overlaid, as for every other read.
+ */
+@Component
+public class BeerExporter {
+
+    private static final String EXPORT_SQL = "select id, name, brand, max, quantity, type, version from beer order by id";
+    private static final String CSV_HEADER = "id,name,brand,max,quantity,type";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final StockLedger stockLedger;
+    private final int fetchSize;
+
+    @Autowired
+    public BeerExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                        StockLedger stockLedger, BeerStockProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.stockLedger = stockLedger;
+        this.fetchSize = properties.getCatalogExport().getFetchSize();
+    }
+
+    /**
+     * Writes every beer in id order; the stream is flushed but left open.
+     */
+    public void export(OutputStream outputStream, BeerCatalogFormat format) throws IOException {
+        if (format == BeerCatalogFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            read(resultSet -> writeCsv(writer, toDTO(resultSet)));
+            writer.flush();
+        } else {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                read(resultSet -> writer.write(toDTO(resultSet)));
+            }
+        }
+    }
+
+    /**
+     * Runs the export query in a read-only transaction, which some drivers need to stream with a cursor instead of
+     * loading the whole result.
+     */
+    private void read(RowWriter rowWriter) throws IOException {
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                try {
+                    rowWriter.write(resultSet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private BeerDTO toDTO(ResultSet resultSet) throws SQLException {
+        BeerDTO beerDTO = new BeerDTO(resultSet.getLong("id"), resultSet.getString("name"), resultSet.getString("brand"),
+                resultSet.getInt("max"), resultSet.getInt("quantity"), BeerType.valueOf(resultSet.getString("type")),
+                resultSet.getLong("version"));
+        stockLedger.overlay(beerDTO);
+        return beerDTO;
+    }
+
+    private static void writeCsv(Writer writer, BeerDTO beerDTO) throws IOException {
+        writer.write(String.valueOf(beerDTO.getId()));
+        writer.write(',');
+        writeCsvField(writer, beerDTO.getName());
+        writer.write(',');
+        writeCsvField(writer, beerDTO.getBrand());
+        writer.write(',');
+        writer.write(String.valueOf(beerDTO.getMax()));
+        writer.write(',');
+        writer.write(String.valueOf(beerDTO.getQuantity()));
+        writer.write(',');
+        writer.write(beerDTO.getType().name());
+        writer.write('\n');
+    }
+
+    /**
+     * Quotes the field when it holds a separator, a quote or a line break, doubling its quotes.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+
+        void write(ResultSet resultSet) throws SQLException, IOException;
+    }
+}
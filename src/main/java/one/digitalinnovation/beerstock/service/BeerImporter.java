@@ -0,0 +1,316 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportProgressDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerCatalogFormat;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a catalog read line by line, a chunk at a time: the chunk's names are checked against the table with one
+ * IN query, and its new beers are inserted in one transaction, which Hibernate sends as JDBC batches since beer ids
+ * come from a pooled sequence. Rows that cannot be parsed, break a {@link BeerDTO} constraint or name a beer that is
+ * already registered are reported and skipped; the other rows of their chunk are still imported.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerImporter {
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "brand", "max", "quantity", "type");
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BeerStockProperties properties;
+    private final BeerNameFilter beerNameFilter;
+    private final StockAlertEngine stockAlertEngine;
+    private final StockChangeStream stockChangeStream;
+    private final StockJournal stockJournal;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final StockOutbox stockOutbox;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    /**
+     * @param progress called after every chunk, and a last time with {@code done} set
+     * @return the final progress
+     */
+    public BeerImportProgressDTO importBeers(Reader source, BeerCatalogFormat format, Consumer<BeerImportProgressDTO> progress) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        Import anImport = new Import(progress);
+        RowParser parser = format == BeerCatalogFormat.CSV ? csvParser(reader.readLine(), anImport) : this::parseJson;
+        if (parser == null) {
+            return anImport.report(true);
+        }
+
+        int chunkSize = Math.max(1, properties.getCatalogImport().getChunkSize());
+        Map<Long, BeerDTO> chunk = new LinkedHashMap<>();
+        long line = format == BeerCatalogFormat.CSV ? 1 : 0;
+        int rowsInChunk = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            anImport.rows++;
+            Optional<BeerDTO> row = readRow(line, text, parser, anImport);
+            if (row.isPresent()) {
+                chunk.put(line, row.get());
+            }
+            if (++rowsInChunk == chunkSize) {
+                importChunk(chunk, anImport);
+                anImport.report(false);
+                chunk.clear();
+                rowsInChunk = 0;
+            }
+        }
+        importChunk(chunk, anImport);
+        return anImport.report(true);
+    }
+
+    private Optional<BeerDTO> readRow(long line, String text, RowParser parser, Import anImport) {
+        BeerDTO beerDTO;
+        try {
+            beerDTO = parser.parse(text);
+        } catch (JsonProcessingException e) {
+            anImport.fail(line, null, e.getOriginalMessage());
+            return Optional.empty();
+        } catch (IllegalArgumentException e) {
+            anImport.fail(line, null, e.getMessage());
+            return Optional.empty();
+        }
+
+        Set<ConstraintViolation<BeerDTO>> violations = validator.validate(beerDTO);
+        if (!violations.isEmpty()) {
+            anImport.fail(line, beerDTO.getName(), violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return Optional.empty();
+        }
+        beerDTO.setId(null);
+        return Optional.of(beerDTO);
+    }
+
+    private void importChunk(Map<Long, BeerDTO> chunk, Import anImport) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> lineByName = new HashMap<>();
+        Map<Long, BeerDTO> candidates = new LinkedHashMap<>();
+        chunk.forEach((line, beerDTO) -> {
+            Long firstLine = lineByName.putIfAbsent(beerDTO.getName(), line);
+            if (firstLine == null) {
+                candidates.put(line, beerDTO);
+            } else {
+                anImport.fail(line, beerDTO.getName(), "Name repeated from line " + firstLine);
+            }
+        });
+        Set<String> registered = new HashSet<>(beerRepository.findNamesIn(lineByName.keySet()));
+        candidates.entrySet().removeIf(candidate -> {
+            if (registered.contains(candidate.getValue().getName())) {
+                anImport.fail(candidate.getKey(), candidate.getValue().getName(), "Beer already registered");
+                return true;
+            }
+            return false;
+        });
+
+        List<Beer> saved = insert(candidates, anImport);
+        entityManager.clear();
+        saved.forEach(beer -> {
+            stockAlertEngine.onStockChanged(beer);
+            stockChangeStream.onStockChanged(beer);
+        });
+        anImport.imported += saved.size();
+    }
+
+    /**
+     * Inserts the chunk in one transaction. When a beer with one of its names was registered since the names were
+     * checked, the chunk is rolled back and inserted one beer per transaction, so that only that row fails.
+     */
+    private List<Beer> insert(Map<Long, BeerDTO> candidates, Import anImport) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        candidates.values().forEach(beerDTO -> beerNameFilter.put(beerDTO.getName()));
+        try {
+            return transactionTemplate.execute(status -> save(new ArrayList<>(candidates.values())));
+        } catch (DataIntegrityViolationException e) {
+            entityManager.clear();
+        }
+
+        List<Beer> saved = new ArrayList<>();
+        candidates.forEach((line, beerDTO) -> {
+            try {
+                saved.addAll(transactionTemplate.execute(status -> save(List.of(beerDTO))));
+            } catch (DataIntegrityViolationException e) {
+                entityManager.clear();
+                anImport.fail(line, beerDTO.getName(), "Beer already registered");
+            }
+        });
+        return saved;
+    }
+
+    private List<Beer> save(List<BeerDTO> beerDTOs) {
+        List<Beer> beers = beerRepository.saveAll(beerDTOs.stream().map(beerMapper::toModel).collect(Collectors.toList()));
+        beerRepository.flush();
+        stockOutbox.created(beers);
+        stockJournal.created(beers);
+        beerCatalogVersion.bump();
+        return beers;
+    }
+
+    private BeerDTO parseJson(String text) throws JsonProcessingException {
+        return objectMapper.readValue(text, BeerDTO.class);
+    }
+
+    /**
+     * @return a parser for the columns named by the header, or {@code null} when a required column is missing
+     */
+    private RowParser csvParser(String header, Import anImport) {
+        List<String> names = header == null ? List.of() : splitCsv(header.replace(BYTE_ORDER_MARK, "")).stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        List<String> missing = CSV_COLUMNS.stream().filter(column -> !names.contains(column)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            anImport.fail(1, null, "Header misses columns " + String.join(", ", missing));
+            return null;
+        }
+
+        int name = names.indexOf("name");
+        int brand = names.indexOf("brand");
+        int max = names.indexOf("max");
+        int quantity = names.indexOf("quantity");
+        int type = names.indexOf("type");
+        return text -> {
+            List<String> fields = splitCsv(text);
+            if (fields.size() < names.size()) {
+                throw new IllegalArgumentException("Expected " + names.size() + " columns, found " + fields.size());
+            }
+            return BeerDTO.builder()
+                    .name(blankToNull(fields.get(name)))
+                    .brand(blankToNull(fields.get(brand)))
+                    .max(parseInt("max", fields.get(max)))
+                    .quantity(parseInt("quantity", fields.get(quantity)))
+                    .type(parseType(fields.get(type)))
+                    .build();
+        };
+    }
+
+    /**
+     * Splits one line of RFC 4180 CSV: fields may be quoted, with {@code ""} for a quote inside them.
+     */
+    private static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String blankToNull(String value) {
+        return value.isBlank() ? null : value.trim();
+    }
+
+    private static int parseInt(String column, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static BeerType parseType(String value) {
+        try {
+            return BeerType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type is not a beer type: " + value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+
+        BeerDTO parse(String text) throws JsonProcessingException;
+    }
+
+    private class Import {
+
+        private final Consumer<BeerImportProgressDTO> progress;
+        private final int maxReportedErrors = properties.getCatalogImport().getMaxReportedErrors();
+        private List<BeerImportErrorDTO> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        private Import(Consumer<BeerImportProgressDTO> progress) {
+            this.progress = progress;
+        }
+
+        private void fail(long line, String name, String message) {
+            if (failed++ < maxReportedErrors) {
+                errors.add(new BeerImportErrorDTO(line, name, message));
+            }
+        }
+
+        private BeerImportProgressDTO report(boolean done) {
+            BeerImportProgressDTO report = new BeerImportProgressDTO(rows, imported, failed, errors, done);
+            errors = new ArrayList<>();
+            progress.accept(report);
+            return report;
+        }
+    }
+}
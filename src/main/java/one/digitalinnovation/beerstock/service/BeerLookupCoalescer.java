@@ -0,0 +1,91 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for beer lookups that miss the cache: while one lookup of a name or id is running, identical lookups
+ * wait for it and get a copy of its result instead of sending their own query. Nothing is kept once the lookup is
+ * over, so it never serves anything older than the database did at the time.
+ */
+@Component
+public class BeerLookupCoalescer {
+
+    public static final String LOOKUP_COUNTER = "beerstock.lookups";
+
+    private final Map<String, CompletableFuture<Optional<BeerDTO>>> byName = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Optional<BeerDTO>>> byId = new ConcurrentHashMap<>();
+    private final Counter nameLoads;
+    private final Counter nameCollapsed;
+    private final Counter idLoads;
+    private final Counter idCollapsed;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    public BeerLookupCoalescer(MeterRegistry meterRegistry) {
+        this.nameLoads = counter(meterRegistry, "name", "loaded");
+        this.nameCollapsed = counter(meterRegistry, "name", "collapsed");
+        this.idLoads = counter(meterRegistry, "id", "loaded");
+        this.idCollapsed = counter(meterRegistry, "id", "collapsed");
+    }
+
+    public Optional<BeerDTO> findByName(String name, Supplier<Optional<BeerDTO>> loader) {
+        return load(byName, name, loader, nameLoads, nameCollapsed);
+    }
+
+    public Optional<BeerDTO> findById(Long id, Supplier<Optional<BeerDTO>> loader) {
+        return load(byId, id, loader, idLoads, idCollapsed);
+    }
+
+    private <K> Optional<BeerDTO> load(Map<K, CompletableFuture<Optional<BeerDTO>>> inFlight, K key,
+                                       Supplier<Optional<BeerDTO>> loader, Counter loads, Counter collapsed) {
+        CompletableFuture<Optional<BeerDTO>> lookup = new CompletableFuture<>();
+        CompletableFuture<Optional<BeerDTO>> running = inFlight.putIfAbsent(key, lookup);
+        if (running != null) {
+            collapsed.increment();
+            return await(running).map(beerMapper::copy);
+        }
+
+        loads.increment();
+        try {
+            Optional<BeerDTO> beerDTO = loader.get();
+            lookup.complete(beerDTO);
+            return beerDTO.map(beerMapper::copy);
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, lookup);
+        }
+    }
+
+    private static Optional<BeerDTO> await(CompletableFuture<Optional<BeerDTO>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String key, String outcome) {
+        return Counter.builder(LOOKUP_COUNTER)
+                .description("Beer lookups that missed the cache, by whether they queried or joined one in flight")
+                .tag("key", key)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,198 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.ReplicaRouting;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the names of all registered beers, used to answer lookups of unknown names without a query.
+ * <p>
+ * It is built from the database once the application is ready and kept up to date by {@link #put(String)}. Bloom
+ * filters cannot forget, so names of deleted beers stay in until the next rebuild. Until the first build is done,
+ * every name is reported as possibly present.
+ * <p>
+ * Only this instance's own registrations are put, so the filter assumes a single instance writes the table: behind a
+ * load balancer a beer registered elsewhere is reported absent, and looked up as missing, until the next rebuild.
+ * Disable it when several instances share the database. Registration never trusts it and always checks the table.
+ */
+@Slf4j
+@Component
+public class BeerNameFilter {
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final BeerStockProperties.NameFilter properties;
+
+    private final AtomicInteger deletionsSinceRebuild = new AtomicInteger();
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Set<String> addedSinceRebuild = ConcurrentHashMap.newKeySet();
+    private volatile Filter filter;
+    private volatile Instant builtAt = Instant.EPOCH;
+
+    @Autowired
+    public BeerNameFilter(BeerRepository beerRepository, PlatformTransactionManager transactionManager, BeerStockProperties properties) {
+        this.beerRepository = beerRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.properties = properties.getNameFilter();
+    }
+
+    /**
+     * @return true only when no beer with this name can exist
+     */
+    public boolean isAbsent(String name) {
+        Filter current = filter;
+        return current != null && !current.mightContain(name);
+    }
+
+    /**
+     * Registers a name; call it before the beer is inserted so that no lookup can miss it.
+     */
+    public void put(String name) {
+        swapLock.readLock().lock();
+        try {
+            addedSinceRebuild.add(name);
+            Filter current = filter;
+            if (current != null) {
+                current.put(name);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void onDeleted() {
+        deletionsSinceRebuild.incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    public void rebuildIfStale() {
+        boolean expired = Duration.between(builtAt, Instant.now()).compareTo(properties.getRebuildInterval()) >= 0;
+        if (filter != null && (expired || deletionsSinceRebuild.get() >= properties.getRebuildAfterDeletions())) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a fresh filter from the table. Names put since the previous rebuild started are added again, which
+     * covers beers whose insert was not yet committed when the table was scanned; the swap lock makes sure that no
+     * {@link #put(String)} falls between that replay and the new filter being published.
+     */
+    public synchronized void rebuild() {
+        Set<String> carriedOver = addedSinceRebuild;
+        addedSinceRebuild = ConcurrentHashMap.newKeySet();
+        deletionsSinceRebuild.set(0);
+
+        long registeredNames;
+        Filter rebuilt;
+        boolean primaryRequired = ReplicaRouting.requirePrimary();
+        try {
+            registeredNames = beerRepository.count();
+            rebuilt = new Filter(Math.max(properties.getExpectedNames(), 2 * registeredNames), properties.getFalsePositiveProbability());
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> names = beerRepository.streamAllNames()) {
+                    names.forEach(rebuilt::put);
+                }
+            });
+        } finally {
+            ReplicaRouting.restore(primaryRequired);
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            carriedOver.forEach(rebuilt::put);
+            addedSinceRebuild.forEach(rebuilt::put);
+            filter = rebuilt;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        builtAt = Instant.now();
+        log.info("Beer name filter rebuilt with {} names", registeredNames);
+    }
+
+    /**
+     * Lock-free Bloom filter: k bit positions derived from one 64-bit hash by double hashing.
+     */
+    private static class Filter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        private Filter(long expectedInsertions, double falsePositiveProbability) {
+            long optimalBits = (long) (-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+            this.bits = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        }
+
+        private void put(String name) {
+            long hash = hash(name);
+            for (int i = 0; i < hashes; i++) {
+                long bit = bitIndex(hash, i);
+                long mask = 1L << bit;
+                words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+        }
+
+        private boolean mightContain(String name) {
+            long hash = hash(name);
+            for (int i = 0; i < hashes; i++) {
+                long bit = bitIndex(hash, i);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long bitIndex(long hash, int i) {
+            int low = (int) hash;
+            int high = (int) (hash >>> 32);
+            return Integer.toUnsignedLong(low + i * high) % bits;
+        }
+
+        /**
+         * 64-bit FNV-1a followed by a murmur3 finalizer, so both halves are well mixed.
+         */
+        private static long hash(String name) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -1,83 +1,423 @@
 package one.digitalinnovation.beerstock.service;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.ReplicaRouting;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportProgressDTO;
+import one.digitalinnovation.beerstock.dto.BeerLocationsDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.dto.LocationStockDTO;
+import one.digitalinnovation.beerstock.dto.LocationTransferDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementPageDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationDTO;
+import one.digitalinnovation.beerstock.dto.StockQuantityAtDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerCatalogFormat;
 import one.digitalinnovation.beerstock.exceptions.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exceptions.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exceptions.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockExceededException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.exceptions.IdempotencyKeyConflictException;
+import one.digitalinnovation.beerstock.exceptions.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.exceptions.StockLocationNotFoundException;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Timer MAPPING_TIMER = Timer.builder("beerstock.mapping")
+            .description("Time spent mapping between Beer and BeerDTO")
+            .register(Metrics.globalRegistry);
+    private static final TransactionDefinition READ_ONLY = readOnlyDefinition();
+
     private final BeerRepository beerRepository;
+    private final StockAdjuster stockAdjuster;
+    private final StockLedger stockLedger;
+    private final BulkStockAdjuster bulkStockAdjuster;
+    private final EntityManager entityManager;
+    private final BeerCache beerCache;
+    private final BeerNameFilter beerNameFilter;
+    private final StockAlertEngine stockAlertEngine;
+    private final StockChangeStream stockChangeStream;
+    private final StockJournal stockJournal;
+    private final IdempotencyStore idempotencyStore;
+    private final BeerLookupCoalescer beerLookupCoalescer;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final BeerImporter beerImporter;
+    private final BeerExporter beerExporter;
+    private final LocationStockManager locationStockManager;
+    private final StockReservations stockReservations;
+    private final StockOutbox stockOutbox;
+    private final TransactionTemplate transactionTemplate;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered(beerDTO.getName());
-        Beer beer = beerMapper.toModel(beerDTO);
-        Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        Beer beer = MAPPING_TIMER.record(() -> beerMapper.toModel(beerDTO));
+        beerNameFilter.put(beer.getName());
+        Beer savedBeer;
+        try {
+            savedBeer = transactionTemplate.execute(status -> {
+                Beer saved = beerRepository.saveAndFlush(beer);
+                stockOutbox.created(List.of(saved));
+                stockJournal.created(List.of(saved));
+                beerCatalogVersion.bump();
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new BeerAlreadyRegisteredException(beer.getName());
+        }
+        beerCache.putCreated(savedBeer);
+        stockAlertEngine.onStockChanged(savedBeer);
+        stockChangeStream.onStockChanged(savedBeer);
+        return map(savedBeer);
+    }
+
+    /**
+     * As {@link #createBeer(BeerDTO)}, returning the first result again when the client retries with the same
+     * idempotency key.
+     */
+    public BeerDTO createBeer(BeerDTO beerDTO, String client, String idempotencyKey) throws BeerAlreadyRegisteredException, IdempotencyKeyConflictException {
+        if (idempotencyKey == null) {
+            return createBeer(beerDTO);
+        }
+        IdempotencyStore.Claim claim = idempotencyStore.claim(client, idempotencyKey, "create:" + beerDTO);
+        if (claim.isReplay()) {
+            return claim.getResult();
+        }
+        try {
+            return claim.complete(createBeer(beerDTO));
+        } finally {
+            claim.release();
+        }
+    }
+
+    public BeerImportProgressDTO importBeers(Reader source, BeerCatalogFormat format, Consumer<BeerImportProgressDTO> progress) throws IOException {
+        return beerImporter.importBeers(source, format, progress);
+    }
+
+    public void exportBeers(OutputStream outputStream, BeerCatalogFormat format) throws IOException {
+        beerExporter.export(outputStream, format);
     }
 
+    /**
+     * Only a lookup that misses the cache and gets past the name filter opens a read-only transaction, and then only
+     * in the caller that runs the coalesced load, so cache hits and waiting callers never take a connection.
+     */
     public BeerDTO findByName(String name) throws BeerNotFoundException {
-        Beer foundBeer = beerRepository.findByName(name)
+        Optional<BeerDTO> cachedBeerDTO = beerCache.findByName(name);
+        if (cachedBeerDTO.isPresent()) {
+            return withLedgerQuantity(cachedBeerDTO.get());
+        }
+        if (beerNameFilter.isAbsent(name)) {
+            throw new BeerNotFoundException(name);
+        }
+
+        Supplier<Optional<BeerDTO>> loader = () -> readOnly(() -> load(beerRepository.findByName(name)));
+        BeerDTO foundBeerDTO = (ReplicaRouting.isPrimaryRequired() ? loader.get() : beerLookupCoalescer.findByName(name, loader))
                 .orElseThrow(() -> new BeerNotFoundException(name));
-        return beerMapper.toDTO(foundBeer);
+        return withLedgerQuantity(foundBeerDTO);
     }
 
+    public BeerDTO findById(Long id) throws BeerNotFoundException {
+        Optional<BeerDTO> cachedBeerDTO = beerCache.findById(id);
+        if (cachedBeerDTO.isPresent()) {
+            return withLedgerQuantity(cachedBeerDTO.get());
+        }
+
+        Supplier<Optional<BeerDTO>> loader = () -> readOnly(() -> load(beerRepository.findById(id)));
+        BeerDTO foundBeerDTO = (ReplicaRouting.isPrimaryRequired() ? loader.get() : beerLookupCoalescer.findById(id, loader))
+                .orElseThrow(() -> new BeerNotFoundException(id));
+        return withLedgerQuantity(foundBeerDTO);
+    }
+
+    @Transactional(readOnly = true)
     public List<BeerDTO> findAll() {
-        return beerRepository.findAll().stream().map(beerMapper::toDTO).collect(Collectors.toList());
+        return beerRepository.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public BeerPageDTO findPage(int page, int size) {
+        int pageSize = pageSize(size);
+        Slice<Beer> beers = beerRepository.findAllBy(PageRequest.of(Math.max(page, 0), pageSize, Sort.by("id")));
+        return toPageDTO(beers.getContent(), beers.hasNext(), pageSize, beers.getNumber());
+    }
+
+    @Transactional(readOnly = true)
+    public BeerPageDTO findAfter(Long cursor, int size) {
+        int pageSize = pageSize(size);
+        List<Beer> beers = beerRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = beers.size() > pageSize;
+        return toPageDTO(hasNext ? beers.subList(0, pageSize) : beers, hasNext, pageSize, null);
+    }
+
+    @Transactional(readOnly = true)
+    public BeerPageDTO search(BeerSearchDTO criteria) {
+        int pageSize = pageSize(criteria.getSize());
+        Sort sort = Sort.by(criteria.getDirection(), criteria.getSort());
+        if (!"id".equals(criteria.getSort())) {
+            sort = sort.and(Sort.by("id"));
+        }
+        Slice<Beer> beers = beerRepository.search(BeerSpecifications.matching(criteria), PageRequest.of(Math.max(criteria.getPage(), 0), pageSize, sort));
+        return toPageDTO(beers.getContent(), beers.hasNext(), pageSize, beers.getNumber());
+    }
+
+    @Transactional(readOnly = true)
+    public StockMovementPageDTO findMovements(Long id, Instant from, Instant to, Long after, int size) {
+        return stockJournal.findHistory(id, from, to, after, size);
+    }
+
+    @Transactional(readOnly = true)
+    public StockQuantityAtDTO findQuantityAt(Long id, Instant at) {
+        return stockJournal.findQuantityAt(id, at);
+    }
+
+    /**
+     * Hands every beer to the consumer as it is read, detaching each one so the persistence context stays empty.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<BeerDTO> consumer) {
+        try (Stream<Beer> beers = beerRepository.streamAll()) {
+            beers.forEach(beer -> {
+                consumer.accept(toDTO(beer));
+                entityManager.detach(beer);
+            });
+        }
     }
 
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
-        beerRepository.deleteById(id);
+        Beer beerToDelete = verifyIfExists(id);
+        stockLedger.evict(List.of(id));
+        transactionTemplate.executeWithoutResult(status -> {
+            beerRepository.deleteById(id);
+            locationStockManager.deleteByBeerId(id);
+            stockOutbox.deleted(id);
+            beerCatalogVersion.bump();
+        });
+        beerCache.evict(beerToDelete);
+        stockAlertEngine.forget(id);
+        stockChangeStream.onDeleted(beerToDelete);
+        beerNameFilter.onDeleted();
     }
 
+    /**
+     * Always asks the database: the name filter only knows the beers this instance registered or read at its last
+     * rebuild. A beer registered by another writer between this check and the insert is caught by the unique name.
+     */
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
+        if (beerCache.findByName(name).isPresent()) {
+            throw new BeerAlreadyRegisteredException(name);
+        }
+
         Optional<Beer> optSavedBeer = beerRepository.findByName(name);
         if (optSavedBeer.isPresent()) {
+            beerCache.put(optSavedBeer.get());
             throw new BeerAlreadyRegisteredException(name);
         }
     }
 
+    private <T> T readOnly(Supplier<T> query) {
+        return new TransactionTemplate(transactionTemplate.getTransactionManager(), READ_ONLY).execute(status -> query.get());
+    }
+
+    private static TransactionDefinition readOnlyDefinition() {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        return definition;
+    }
+
+    private Optional<BeerDTO> load(Optional<Beer> foundBeer) {
+        foundBeer.ifPresent(beerCache::put);
+        return foundBeer.map(this::map);
+    }
+
     private Beer verifyIfExists(Long id) throws BeerNotFoundException {
         return beerRepository.findById(id).orElseThrow(() -> new BeerNotFoundException(id));
     }
 
-    public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-        Beer beerToIncrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-        if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
-            beerToIncrementStock.setQuantity(quantityAfterIncrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
-            return beerMapper.toDTO(incrementedBeerStock);
+    /**
+     * As {@link #increment(Long, int)}, returning the first result again when the client retries with the same
+     * idempotency key.
+     */
+    public BeerDTO increment(Long id, int quantityToIncrement, String client, String idempotencyKey) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException, IdempotencyKeyConflictException {
+        if (idempotencyKey == null) {
+            return increment(id, quantityToIncrement);
+        }
+        IdempotencyStore.Claim claim = idempotencyStore.claim(client, idempotencyKey, "increment:" + id + ":" + quantityToIncrement);
+        if (claim.isReplay()) {
+            return claim.getResult();
+        }
+        try {
+            return claim.complete(increment(id, quantityToIncrement));
+        } finally {
+            claim.release();
+        }
+    }
+
+    /**
+     * As {@link #decrement(Long, int)}, returning the first result again when the client retries with the same
+     * idempotency key.
+     */
+    public BeerDTO decrement(Long id, int quantityToDecrement, String client, String idempotencyKey) throws BeerNotFoundException, BeerStockLessThanZeroException, BeerStockConflictException, IdempotencyKeyConflictException {
+        if (idempotencyKey == null) {
+            return decrement(id, quantityToDecrement);
+        }
+        IdempotencyStore.Claim claim = idempotencyStore.claim(client, idempotencyKey, "decrement:" + id + ":" + quantityToDecrement);
+        if (claim.isReplay()) {
+            return claim.getResult();
+        }
+        try {
+            return claim.complete(decrement(id, quantityToDecrement));
+        } finally {
+            claim.release();
+        }
+    }
+
+    public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        StockAdjustment adjustment = verifyIfAdjusted(id, adjust(id, quantityToIncrement));
+        if (adjustment.isApplied()) {
+            beerCache.put(adjustment.getBeer());
+            stockAlertEngine.onStockChanged(adjustment.getBeer());
+            stockChangeStream.onStockChanged(adjustment.getBeer());
+            return map(adjustment.getBeer());
         }
 
         throw new BeerStockExceededException(id, quantityToIncrement);
     }
 
-    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockLessThanZeroException {
-        Beer beerToDecrementStock = verifyIfExists(id);
-        int quantityAfterDecrement = beerToDecrementStock.getQuantity() - quantityToDecrement;
-
-        if (quantityAfterDecrement >= 0) {
-            beerToDecrementStock.setQuantity(quantityAfterDecrement);
-            Beer beerDecremented = beerRepository.save(beerToDecrementStock);
-            return beerMapper.toDTO(beerDecremented);
+    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockLessThanZeroException, BeerStockConflictException {
+        StockAdjustment adjustment = verifyIfAdjusted(id, adjust(id, -quantityToDecrement));
+        if (adjustment.isApplied()) {
+            beerCache.put(adjustment.getBeer());
+            stockAlertEngine.onStockChanged(adjustment.getBeer());
+            stockChangeStream.onStockChanged(adjustment.getBeer());
+            return map(adjustment.getBeer());
         }
 
         throw new BeerStockLessThanZeroException(id);
     }
+
+    public BulkStockAdjustmentResultDTO adjustStock(BulkStockAdjustmentDTO bulkStockAdjustmentDTO) throws BeerStockConflictException {
+        if (!stockLedger.isEnabled()) {
+            return bulkStockAdjuster.adjust(bulkStockAdjustmentDTO);
+        }
+        return stockLedger.evictDuring(bulkStockAdjustmentDTO.getOperations().stream().map(StockOperationDTO::getId).collect(Collectors.toSet()),
+                () -> bulkStockAdjuster.adjust(bulkStockAdjustmentDTO));
+    }
+
+    public BeerLocationsDTO findLocations(Long id) throws BeerNotFoundException {
+        findById(id);
+        return locationStockManager.findLocations(id);
+    }
+
+    public LocationStockDTO setLocationCapacity(Long id, String location, int max) throws BeerNotFoundException, StockLocationNotFoundException, BeerStockExceededException {
+        findById(id);
+        return locationStockManager.setCapacity(id, location, max);
+    }
+
+    public LocationStockDTO incrementAt(Long id, String location, int quantityToIncrement) throws StockLocationNotFoundException, BeerStockExceededException {
+        return locationStockManager.increment(id, location, quantityToIncrement);
+    }
+
+    public LocationStockDTO decrementAt(Long id, String location, int quantityToDecrement) throws StockLocationNotFoundException, BeerStockLessThanZeroException {
+        return locationStockManager.decrement(id, location, quantityToDecrement);
+    }
+
+    public BeerLocationsDTO transfer(Long id, LocationTransferDTO transfer) throws StockLocationNotFoundException, BeerStockLessThanZeroException, BeerStockExceededException {
+        return locationStockManager.transfer(id, transfer);
+    }
+
+    public ReservationDTO reserve(Long id, ReservationRequestDTO reservationRequestDTO) throws BeerNotFoundException, BeerStockLessThanZeroException {
+        return stockReservations.reserve(id, reservationRequestDTO.getQuantity(), reservationRequestDTO.getTimeToLive());
+    }
+
+    public BeerDTO commitReservation(UUID reservationId) throws ReservationNotFoundException {
+        StockReservations.Committed committed = stockReservations.commit(reservationId);
+        Beer beer = committed.getBeer();
+        beerCache.put(beer);
+        stockAlertEngine.onStockChanged(beer);
+        stockChangeStream.onStockChanged(beer);
+        return map(beer);
+    }
+
+    public void releaseReservation(UUID reservationId) throws ReservationNotFoundException {
+        stockReservations.release(reservationId);
+    }
+
+    private StockAdjustment adjust(Long id, int delta) {
+        return stockLedger.isEnabled() ? stockLedger.adjust(id, delta) : stockAdjuster.adjust(id, delta);
+    }
+
+    private StockAdjustment verifyIfAdjusted(Long id, StockAdjustment adjustment) throws BeerNotFoundException, BeerStockConflictException {
+        switch (adjustment.getStatus()) {
+            case NOT_FOUND:
+                throw new BeerNotFoundException(id);
+            case CONFLICT:
+                throw new BeerStockConflictException(id, adjustment.getAttempts());
+            default:
+                return adjustment;
+        }
+    }
+
+    private BeerPageDTO toPageDTO(List<Beer> beers, boolean hasNext, int size, Integer page) {
+        return BeerPageDTO.builder()
+                .content(beers.stream().map(this::toDTO).collect(Collectors.toList()))
+                .page(page)
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? beers.get(beers.size() - 1).getId() : null)
+                .build();
+    }
+
+    private int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private BeerDTO toDTO(Beer beer) {
+        return withLedgerQuantity(map(beer));
+    }
+
+    private BeerDTO map(Beer beer) {
+        return MAPPING_TIMER.record(() -> beerMapper.toDTO(beer));
+    }
+
+    private BeerDTO withLedgerQuantity(BeerDTO beerDTO) {
+        stockLedger.overlay(beerDTO);
+        return beerDTO;
+    }
 }
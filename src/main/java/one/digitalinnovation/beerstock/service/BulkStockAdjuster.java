@@ -0,0 +1,172 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationResultDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BulkMode;
+import one.digitalinnovation.beerstock.enums.OutboxEventType;
+import one.digitalinnovation.beerstock.enums.StockOperationStatus;
+import one.digitalinnovation.beerstock.exceptions.BeerStockConflictException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies many stock operations in one transaction: one IN query to load the rows, one validation pass, then one JDBC
+ * batch of guarded delta UPDATEs, the same statement {@link StockAdjuster} uses, in beer id order. A row that changed
+ * since it was read can make a guard fail, which shows as an update count of 0; the transaction is then rolled back
+ * and validated again on fresh rows, a bounded number of times.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BulkStockAdjuster {
+
+    private static final long BACKOFF_NANOS = 50_000L;
+    static final String ADJUST_QUANTITY_SQL = "update beer set quantity = quantity + ?, version = version + 1 " +
+            "where id = ? and quantity + ? >= reserved and quantity + ? <= max";
+
+    private final BeerRepository beerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final BeerStockProperties properties;
+    private final BeerCache beerCache;
+    private final StockAlertEngine stockAlertEngine;
+    private final StockChangeStream stockChangeStream;
+    private final StockJournal stockJournal;
+    private final StockOutbox stockOutbox;
+    private final BeerCatalogVersion beerCatalogVersion;
+
+    public BulkStockAdjustmentResultDTO adjust(BulkStockAdjustmentDTO bulkStockAdjustmentDTO) throws BeerStockConflictException {
+        int maxAttempts = Math.max(1, properties.getStock().getMaxAttempts());
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> adjust(bulkStockAdjustmentDTO, status));
+            } catch (ObjectOptimisticLockingFailureException e) {
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(BACKOFF_NANOS * attempt));
+            }
+        }
+        throw new BeerStockConflictException(maxAttempts);
+    }
+
+    private BulkStockAdjustmentResultDTO adjust(BulkStockAdjustmentDTO bulkStockAdjustmentDTO, TransactionStatus status) {
+        List<StockOperationDTO> operations = bulkStockAdjustmentDTO.getOperations();
+        Map<Long, Beer> beers = beerRepository.findAllById(operations.stream().map(StockOperationDTO::getId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<StockOperationResultDTO> results = new ArrayList<>(operations.size());
+        boolean rejected = false;
+        for (StockOperationDTO operation : operations) {
+            StockOperationResultDTO result = validate(operation, beers.get(operation.getId()), quantities);
+            rejected |= result.getStatus() != StockOperationStatus.APPLIED;
+            results.add(result);
+        }
+
+        if (rejected && bulkStockAdjustmentDTO.getMode() == BulkMode.ALL_OR_NOTHING) {
+            results.stream()
+                    .filter(result -> result.getStatus() == StockOperationStatus.APPLIED)
+                    .forEach(result -> {
+                        result.setStatus(StockOperationStatus.SKIPPED);
+                        result.setQuantity(null);
+                    });
+            status.setRollbackOnly();
+            return new BulkStockAdjustmentResultDTO(bulkStockAdjustmentDTO.getMode(), 0, results);
+        }
+
+        List<StockOperationResultDTO> appliedResults = results.stream()
+                .filter(result -> result.getStatus() == StockOperationStatus.APPLIED)
+                .sorted(Comparator.comparing(StockOperationResultDTO::getId))
+                .collect(Collectors.toList());
+        int[] updateCounts = jdbcTemplate.batchUpdate(ADJUST_QUANTITY_SQL, appliedResults.stream()
+                .map(result -> new Object[]{result.getDelta(), result.getId(), result.getDelta(), result.getDelta()})
+                .collect(Collectors.toList()));
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                throw new ObjectOptimisticLockingFailureException(Beer.class, appliedResults.get(i).getId());
+            }
+        }
+        entityManager.clear();
+        Map<Long, Beer> written = beerRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+        settleQuantities(appliedResults, written);
+
+        stockOutbox.appendAll(appliedResults.stream()
+                .map(result -> stockOutbox.event(result.getId(), OutboxEventType.STOCK_CHANGED, result.getDelta(), result.getQuantity()))
+                .collect(Collectors.toList()));
+        stockJournal.recordAll(appliedResults.stream()
+                .map(result -> stockJournal.movement(result.getId(), result.getDelta(), result.getQuantity()))
+                .collect(Collectors.toList()));
+        if (!appliedResults.isEmpty()) {
+            beerCatalogVersion.bump();
+        }
+        written.values().forEach(beer -> {
+            beerCache.put(beer);
+            stockAlertEngine.onStockChanged(beer);
+            stockChangeStream.onStockChanged(beer);
+        });
+
+        return new BulkStockAdjustmentResultDTO(bulkStockAdjustmentDTO.getMode(), appliedResults.size(), results);
+    }
+
+    /**
+     * Replaces the quantities worked out from the rows as read with the ones actually written, which differ when
+     * another writer committed in between. Rows stay locked from their first UPDATE, so walking back from the final
+     * quantity through the later deltas of the same beer gives each operation its own result.
+     */
+    private void settleQuantities(List<StockOperationResultDTO> appliedResults, Map<Long, Beer> written) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (int i = appliedResults.size() - 1; i >= 0; i--) {
+            StockOperationResultDTO result = appliedResults.get(i);
+            int quantity = quantities.getOrDefault(result.getId(), written.get(result.getId()).getQuantity());
+            result.setQuantity(quantity);
+            quantities.put(result.getId(), quantity - result.getDelta());
+        }
+    }
+
+    /**
+     * Checks one operation against the quantity left by the previous operations on the same beer.
+     */
+    private StockOperationResultDTO validate(StockOperationDTO operation, Beer beer, Map<Long, Integer> quantities) {
+        StockOperationResultDTO result = StockOperationResultDTO.builder()
+                .id(operation.getId())
+                .delta(operation.getDelta())
+                .build();
+        if (beer == null) {
+            result.setStatus(StockOperationStatus.NOT_FOUND);
+            return result;
+        }
+
+        int quantityAfterOperation = quantities.getOrDefault(beer.getId(), beer.getQuantity()) + operation.getDelta();
+        if (quantityAfterOperation < beer.getReserved()) {
+            result.setStatus(StockOperationStatus.LESS_THAN_ZERO);
+        } else if (quantityAfterOperation > beer.getMax()) {
+            result.setStatus(StockOperationStatus.EXCEEDS_MAX);
+        } else {
+            quantities.put(beer.getId(), quantityAfterOperation);
+            result.setStatus(StockOperationStatus.APPLIED);
+            result.setQuantity(quantityAfterOperation);
+        }
+        return result;
+    }
+}
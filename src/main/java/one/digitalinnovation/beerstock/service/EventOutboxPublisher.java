@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.OutboxEventDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands events to in-process listeners; subscribe with {@code @EventListener} on an {@link OutboxEventDTO} parameter.
+ */
+@Component
+@ConditionalOnProperty(prefix = "beerstock.outbox", name = "publisher", havingValue = "event")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class EventOutboxPublisher implements OutboxPublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OutboxEventDTO> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
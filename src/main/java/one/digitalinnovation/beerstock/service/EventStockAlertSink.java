@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands alerts to in-process listeners; subscribe with {@code @EventListener} on a {@link StockAlertDTO} parameter.
+ */
+@Component
+@ConditionalOnProperty(prefix = "beerstock.alerts", name = "sink", havingValue = "event")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class EventStockAlertSink implements StockAlertSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(StockAlertDTO alert) {
+        eventPublisher.publishEvent(alert);
+    }
+}
@@ -0,0 +1,90 @@
+package one.digitalinnovation.beerstock.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel: each deadline goes into the slot of the tick it falls on, so scheduling and cancelling cost
+ * the same whatever the number of pending deadlines, and a tick only looks at its own slot. A deadline more than one
+ * turn away stays in its slot for the turns it still has to wait.
+ * <p>
+ * Any thread may schedule or cancel; a single thread advances the wheel. A deadline scheduled into the slot the wheel
+ * is just leaving is picked up one turn later.
+ */
+class ExpiryWheel<T> {
+
+    private final long tickNanos;
+    private final Queue<Timeout<T>>[] slots;
+    private final int mask;
+    private final long startedAt;
+    private volatile long tick;
+
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(Duration tickDuration, int size, long nowNanos) {
+        this.tickNanos = Math.max(1, tickDuration.toNanos());
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.slots = new Queue[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = capacity - 1;
+        this.startedAt = nowNanos;
+    }
+
+    /**
+     * @return a handle whose {@link Timeout#cancel()} keeps the item from expiring
+     */
+    Timeout<T> schedule(T item, long deadlineNanos) {
+        Timeout<T> timeout = new Timeout<>(item, Math.max(tickOf(deadlineNanos), tick + 1));
+        slots[(int) (timeout.deadlineTick & mask)].add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel up to the given time.
+     *
+     * @return the items whose deadline has passed and that were not cancelled
+     */
+    List<T> advance(long nowNanos) {
+        List<T> expired = new ArrayList<>();
+        long target = tickOf(nowNanos);
+        while (tick < target) {
+            tick++;
+            Iterator<Timeout<T>> timeouts = slots[(int) (tick & mask)].iterator();
+            while (timeouts.hasNext()) {
+                Timeout<T> timeout = timeouts.next();
+                if (timeout.cancelled) {
+                    timeouts.remove();
+                } else if (timeout.deadlineTick <= tick) {
+                    timeouts.remove();
+                    expired.add(timeout.item);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private long tickOf(long nanos) {
+        return (nanos - startedAt) / tickNanos;
+    }
+
+    static final class Timeout<T> {
+
+        private final T item;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.OutboxEventDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each batch to a file as NDJSON and forces it to disk before the relay deletes the events from the outbox.
+ */
+@Component
+@ConditionalOnProperty(prefix = "beerstock.outbox", name = "publisher", havingValue = "file")
+public class FileOutboxPublisher implements OutboxPublisher {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    @Autowired
+    public FileOutboxPublisher(ObjectMapper objectMapper, BeerStockProperties properties) {
+        this.objectMapper = objectMapper;
+        this.file = properties.getOutbox().getFile();
+    }
+
+    @Override
+    public void publish(List<OutboxEventDTO> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (OutboxEventDTO event : events) {
+            lines.write(objectMapper.writeValueAsBytes(event));
+            lines.write('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.IdempotencyRecord;
+import one.digitalinnovation.beerstock.exceptions.IdempotencyKeyConflictException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Results of the requests made with an {@code Idempotency-Key}, so that a retried request gets the first result back
+ * instead of being applied again.
+ * <p>
+ * Keys are scoped to the client that sent them, so two clients picking the same key never see each other's results.
+ * The first request with a key {@link #claim(String, String, String) claims} it and runs; duplicates arriving
+ * meanwhile wait on its result. Only successful results are kept: when the owner fails, the claim is released and the
+ * next duplicate runs the operation itself. A key reused for a different request is rejected. Results live in a
+ * bounded cache that expires them after the configured time to live and, when {@code persistent}, in a table as well,
+ * inserted in the transaction of the operation so that the result is stored if and only if the operation commits.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_KEYS = "idempotencyKeys";
+
+    private static final String DELETE_EXPIRED_RECORD_SQL = "delete from idempotency_record where idempotency_key = ? and created_at < ?";
+    private static final String INSERT_RECORD_SQL =
+            "insert into idempotency_record (idempotency_key, fingerprint, response, created_at) values (?, ?, ?, ?)";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final BeerStockProperties.Idempotency properties;
+    private final Cache<String, Entry> entries;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                            BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        this.properties = properties.getIdempotency();
+        this.entries = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(this.properties.getMaximumSize())
+                .expireAfterWrite(this.properties.getTimeToLive())
+                .recordStats()
+                .<String, Entry>build(), IDEMPOTENCY_KEYS);
+    }
+
+    /**
+     * @param client      who sent the key, as named by {@link one.digitalinnovation.beerstock.config.ClientResolver}
+     * @param fingerprint what the request asks for; a key is only replayed for a request with the same fingerprint
+     * @return a replay of the stored result, or the claim to run the operation under, complete and then release;
+     * when persistent, that claim has opened the transaction the writes of the operation join
+     */
+    public Claim claim(String client, String key, String fingerprint) throws IdempotencyKeyConflictException {
+        String scopedKey = scope(client, key);
+        while (true) {
+            Entry entry = new Entry(key, fingerprint);
+            Entry existing = entries.asMap().putIfAbsent(scopedKey, entry);
+            if (existing == null) {
+                return claimed(scopedKey, entry);
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyConflictException(key);
+            }
+
+            Optional<BeerDTO> result = await(existing);
+            if (result.isPresent()) {
+                return new Claim(scopedKey, existing, result.get());
+            }
+        }
+    }
+
+    /**
+     * The client name is length-prefixed, so no client can pick a key that lands in the scope of another.
+     */
+    static String scope(String client, String key) {
+        return client.length() + ":" + client + ":" + key;
+    }
+
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT1H")
+    public void purge() {
+        if (properties.isPersistent()) {
+            int purged = idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(properties.getTimeToLive()));
+            log.debug("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    /**
+     * Checks the table for a result stored before a restart or by another instance.
+     */
+    private Claim claimed(String key, Entry entry) throws IdempotencyKeyConflictException {
+        if (!properties.isPersistent()) {
+            return new Claim(key, entry, null);
+        }
+
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(key)
+                .filter(stored -> stored.getCreatedAt().plus(properties.getTimeToLive()).isAfter(Instant.now()));
+        if (record.isEmpty()) {
+            return new Claim(key, entry, null);
+        }
+        if (!record.get().getFingerprint().equals(entry.fingerprint)) {
+            entries.asMap().remove(key, entry);
+            entry.result.completeExceptionally(new CancellationException());
+            throw new IdempotencyKeyConflictException(entry.key);
+        }
+        try {
+            BeerDTO stored = objectMapper.readValue(record.get().getResponse(), BeerDTO.class);
+            entry.result.complete(stored);
+            return new Claim(key, entry, stored);
+        } catch (JsonProcessingException e) {
+            log.warn("Stored result of idempotency key {} could not be read, running the request again", entry.key, e);
+            return new Claim(key, entry, null);
+        }
+    }
+
+    /**
+     * @return the result of the request holding the key, or empty when it failed and released the key
+     */
+    private Optional<BeerDTO> await(Entry entry) throws IdempotencyKeyConflictException {
+        try {
+            return Optional.of(entry.result.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException | CancellationException e) {
+            return Optional.empty();
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException(entry.key, properties.getWaitTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException(entry.key, properties.getWaitTimeout());
+        }
+    }
+
+    /**
+     * @return the result another instance committed for the same request, which this one rolled back
+     */
+    private BeerDTO recordedElsewhere(String scopedKey, Entry entry) throws IdempotencyKeyConflictException {
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(scopedKey);
+        if (record.isEmpty()) {
+            throw new IdempotencyKeyConflictException(entry.key, properties.getWaitTimeout());
+        }
+        if (!record.get().getFingerprint().equals(entry.fingerprint)) {
+            throw new IdempotencyKeyConflictException(entry.key);
+        }
+        try {
+            return objectMapper.readValue(record.get().getResponse(), BeerDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored result of idempotency key " + entry.key + " could not be read", e);
+        }
+    }
+
+    /**
+     * Inserts the record, replacing an expired one not purged yet. A live record inserted meanwhile, by another
+     * instance running the same request, fails the insert and rolls the operation back.
+     */
+    private void persist(String scopedKey, Entry entry, BeerDTO result) {
+        String response;
+        try {
+            response = objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            log.warn("Result of idempotency key {} could not be stored, it is only kept in memory", entry.key, e);
+            return;
+        }
+        Instant now = Instant.now();
+        jdbcTemplate.update(DELETE_EXPIRED_RECORD_SQL, scopedKey, Timestamp.from(now.minus(properties.getTimeToLive())));
+        try {
+            jdbcTemplate.update(INSERT_RECORD_SQL, scopedKey, entry.fingerprint, response, Timestamp.from(now));
+        } catch (DuplicateKeyException e) {
+            throw new RecordedElsewhereException();
+        }
+    }
+
+    /**
+     * Rolls the operation back when the same request already committed its record.
+     */
+    private static class RecordedElsewhereException extends RuntimeException {
+    }
+
+    public class Claim {
+
+        private final String key;
+        private final Entry entry;
+        private final BeerDTO replayed;
+        private final TransactionStatus transaction;
+
+        private Claim(String key, Entry entry, BeerDTO replayed) {
+            this.key = key;
+            this.entry = entry;
+            this.replayed = replayed;
+            this.transaction = replayed == null && properties.isPersistent()
+                    ? transactionManager.getTransaction(TransactionDefinition.withDefaults())
+                    : null;
+        }
+
+        public boolean isReplay() {
+            return replayed != null;
+        }
+
+        public BeerDTO getResult() {
+            return beerMapper.copy(replayed);
+        }
+
+        /**
+         * Stores the result for the duplicates and returns it. When persistent, the record is inserted and committed
+         * with the writes of the operation; if another instance committed the same request meanwhile, this one is
+         * rolled back and that instance's result is returned instead.
+         */
+        public BeerDTO complete(BeerDTO result) throws IdempotencyKeyConflictException {
+            BeerDTO completed = result;
+            if (transaction != null) {
+                try {
+                    persist(key, entry, result);
+                    transactionManager.commit(transaction);
+                } catch (RecordedElsewhereException e) {
+                    transactionManager.rollback(transaction);
+                    completed = recordedElsewhere(key, entry);
+                }
+            }
+            entry.result.complete(beerMapper.copy(completed));
+            return completed;
+        }
+
+        /**
+         * Rolls back the writes of an operation that did not complete, and gives the key up unless a result was
+         * stored, waking the duplicates so that one of them runs instead.
+         */
+        public void release() {
+            if (transaction != null && !transaction.isCompleted()) {
+                transactionManager.rollback(transaction);
+            }
+            if (!entry.result.isDone()) {
+                entries.asMap().remove(key, entry);
+                entry.result.completeExceptionally(new CancellationException());
+            }
+        }
+    }
+
+    private static class Entry {
+
+        /**
+         * The key as the client sent it, for error messages.
+         */
+        private final String key;
+        private final String fingerprint;
+        private final CompletableFuture<BeerDTO> result = new CompletableFuture<>();
+
+        private Entry(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
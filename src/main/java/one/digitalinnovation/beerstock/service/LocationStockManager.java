@@ -0,0 +1,158 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerLocationsDTO;
+import one.digitalinnovation.beerstock.dto.LocationStockDTO;
+import one.digitalinnovation.beerstock.dto.LocationTransferDTO;
+import one.digitalinnovation.beerstock.entity.LocationStock;
+import one.digitalinnovation.beerstock.exceptions.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.exceptions.StockLocationNotFoundException;
+import one.digitalinnovation.beerstock.mapper.LocationStockMapper;
+import one.digitalinnovation.beerstock.repository.LocationStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Stock per location, under the same rules as the beer's own stock: a location holds between 0 and its max. Every
+ * adjustment is a single guarded UPDATE of that location's row, and a transfer applies both of its UPDATEs in one
+ * transaction, in location order so that two opposite transfers cannot deadlock.
+ * <p>
+ * Every write appends its outbox event in its own transaction, as the writes of the beer itself do.
+ * <p>
+ * The total of a beer is summed from the location rows read for it, in the same statement, so it always matches them
+ * and every instance reports the same figure.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class LocationStockManager {
+
+    private final LocationStockRepository locationStockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StockOutbox stockOutbox;
+    private final LocationStockMapper locationStockMapper = LocationStockMapper.INSTANCE;
+
+    public BeerLocationsDTO findLocations(Long beerId) {
+        List<LocationStock> locations = locationStockRepository.findByBeerIdOrderByLocation(beerId);
+        return BeerLocationsDTO.builder()
+                .beerId(beerId)
+                .total(locations.stream().mapToLong(LocationStock::getQuantity).sum())
+                .locations(locations.stream()
+                        .map(locationStockMapper::toDTO)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Opens the location with no stock, or changes its max as long as its current quantity still fits. When another
+     * caller opens the same location first, the unique constraint rejects this insert and the max is updated instead.
+     */
+    public LocationStockDTO setCapacity(Long beerId, String location, int max) throws StockLocationNotFoundException, BeerStockExceededException {
+        if (locationStockRepository.findByBeerIdAndLocation(beerId, location).isEmpty()) {
+            try {
+                return locationStockMapper.toDTO(transactionTemplate.execute(status -> {
+                    LocationStock opened = locationStockRepository.saveAndFlush(new LocationStock(null, beerId, location, max, 0, null));
+                    stockOutbox.locationCapacityChanged(beerId, location, max);
+                    return opened;
+                }));
+            } catch (DataIntegrityViolationException e) {
+                // opened concurrently, so there is a row to update now
+            }
+        }
+
+        Integer updated = transactionTemplate.execute(status -> {
+            int rows = locationStockRepository.updateMax(beerId, location, max);
+            if (rows == 1) {
+                stockOutbox.locationCapacityChanged(beerId, location, max);
+            }
+            return rows;
+        });
+        if (updated == null || updated == 0) {
+            throw new BeerStockExceededException(beerId, location, find(beerId, location).getQuantity());
+        }
+        return find(beerId, location);
+    }
+
+    public LocationStockDTO increment(Long beerId, String location, int quantity) throws StockLocationNotFoundException, BeerStockExceededException {
+        if (!adjust(beerId, location, quantity)) {
+            verifyIfExists(beerId, location);
+            throw new BeerStockExceededException(beerId, location, quantity);
+        }
+        return find(beerId, location);
+    }
+
+    public LocationStockDTO decrement(Long beerId, String location, int quantity) throws StockLocationNotFoundException, BeerStockLessThanZeroException {
+        if (!adjust(beerId, location, -quantity)) {
+            verifyIfExists(beerId, location);
+            throw new BeerStockLessThanZeroException(beerId, location);
+        }
+        return find(beerId, location);
+    }
+
+    /**
+     * Moves stock between two locations of the beer; either both sides change or neither does. The total is left as
+     * it was.
+     */
+    public BeerLocationsDTO transfer(Long beerId, LocationTransferDTO transfer) throws StockLocationNotFoundException, BeerStockLessThanZeroException, BeerStockExceededException {
+        String from = transfer.getFrom();
+        String to = transfer.getTo();
+        int quantity = transfer.getQuantity();
+        boolean fromFirst = from.compareTo(to) <= 0;
+        Boolean applied = transactionTemplate.execute(status -> {
+            boolean first = fromFirst ? apply(beerId, from, -quantity) : apply(beerId, to, quantity);
+            boolean second = first && (fromFirst ? apply(beerId, to, quantity) : apply(beerId, from, -quantity));
+            if (!second) {
+                status.setRollbackOnly();
+            }
+            return second;
+        });
+
+        if (!Boolean.TRUE.equals(applied)) {
+            verifyIfExists(beerId, to);
+            LocationStock source = locationStockRepository.findByBeerIdAndLocation(beerId, from)
+                    .orElseThrow(() -> new StockLocationNotFoundException(beerId, from));
+            if (source.getQuantity() < quantity) {
+                throw new BeerStockLessThanZeroException(beerId, from);
+            }
+            throw new BeerStockExceededException(beerId, to, quantity);
+        }
+        return findLocations(beerId);
+    }
+
+    /**
+     * Drops every location of a deleted beer, in the caller's transaction when there is one, so that the beer and its
+     * locations go together.
+     */
+    public void deleteByBeerId(Long beerId) {
+        locationStockRepository.deleteByBeerId(beerId);
+    }
+
+    private boolean adjust(Long beerId, String location, int delta) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> apply(beerId, location, delta)));
+    }
+
+    private boolean apply(Long beerId, String location, int delta) {
+        if (locationStockRepository.adjustQuantity(beerId, location, delta) == 0) {
+            return false;
+        }
+        stockOutbox.locationStockChanged(beerId, location, delta);
+        return true;
+    }
+
+    private LocationStockDTO find(Long beerId, String location) throws StockLocationNotFoundException {
+        return locationStockRepository.findByBeerIdAndLocation(beerId, location)
+                .map(locationStockMapper::toDTO)
+                .orElseThrow(() -> new StockLocationNotFoundException(beerId, location));
+    }
+
+    private void verifyIfExists(Long beerId, String location) throws StockLocationNotFoundException {
+        if (locationStockRepository.findByBeerIdAndLocation(beerId, location).isEmpty()) {
+            throw new StockLocationNotFoundException(beerId, location);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.OutboxEventDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "beerstock.outbox", name = "publisher", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+    @Override
+    public void publish(List<OutboxEventDTO> events) {
+        events.forEach(event -> log.info("Outbox event {}: beer {}{} {} by {}, quantity {}", event.getId(), event.getBeerId(),
+                event.getLocation() == null ? "" : " at " + event.getLocation(), event.getType(), event.getDelta(), event.getQuantity()));
+    }
+}
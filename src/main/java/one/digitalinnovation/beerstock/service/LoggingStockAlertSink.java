@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "beerstock.alerts", name = "sink", havingValue = "log", matchIfMissing = true)
+public class LoggingStockAlertSink implements StockAlertSink {
+
+    @Override
+    public void publish(StockAlertDTO alert) {
+        log.warn("Beer {} ({}) went from {} to {} stock: {}/{}", alert.getBeerId(), alert.getName(),
+                alert.getPreviousLevel(), alert.getLevel(), alert.getQuantity(), alert.getMax());
+    }
+}
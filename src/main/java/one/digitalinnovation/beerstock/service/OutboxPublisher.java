@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.OutboxEventDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the events relayed by {@link OutboxRelay}, selected with {@code beerstock.outbox.publisher}. A batch
+ * that fails, or whose deletion from the outbox fails afterwards, is published again, so downstream has to tolerate
+ * redeliveries; events of one beer always arrive in order.
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxEventDTO> events) throws IOException;
+}
@@ -0,0 +1,100 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.OutboxEventDTO;
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.mapper.OutboxEventMapper;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the transactional outbox: on a fixed delay, publishes the oldest events in id order, one batch at a
+ * time, and deletes a batch only once it has been published. A batch that fails stays where it is and is published
+ * again on the next run, ahead of anything newer, so delivery is at least once and the events of a beer keep their
+ * order. Runs on the scheduler thread only, so batches never overlap.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxPublisher outboxPublisher;
+    private final BeerStockProperties.Outbox properties;
+    private final OutboxEventMapper outboxEventMapper = OutboxEventMapper.INSTANCE;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer publishTimer;
+    private final Timer lag;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, TransactionTemplate transactionTemplate,
+                       OutboxPublisher outboxPublisher, BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxPublisher = outboxPublisher;
+        this.properties = properties.getOutbox();
+        this.published = Counter.builder("beerstock.outbox.published")
+                .description("Outbox events handed to the publisher and removed from the outbox")
+                .register(meterRegistry);
+        this.failures = Counter.builder("beerstock.outbox.failures")
+                .description("Outbox batches that failed to publish and were left for the next run")
+                .register(meterRegistry);
+        this.publishTimer = Timer.builder("beerstock.outbox.publish")
+                .description("Time spent publishing one batch of outbox events")
+                .register(meterRegistry);
+        this.lag = Timer.builder("beerstock.outbox.lag")
+                .description("Time from a change to the publication of its event")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.outbox.relay-interval:PT0.5S}")
+    public void relay() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findOldest(PageRequest.of(0, batchSize));
+            if (batch.isEmpty() || !publish(batch)) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private boolean publish(List<OutboxEvent> batch) {
+        List<OutboxEventDTO> events = batch.stream().map(outboxEventMapper::toDTO).collect(Collectors.toList());
+        try {
+            publishTimer.recordCallable(() -> {
+                outboxPublisher.publish(events);
+                return null;
+            });
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Publishing {} outbox events failed, retried on the next run", events.size(), e);
+            return false;
+        }
+
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteByIds(ids));
+        published.increment(events.size());
+        Instant now = Instant.now();
+        events.forEach(event -> lag.record(Duration.between(event.getOccurredAt(), now)));
+        return true;
+    }
+}
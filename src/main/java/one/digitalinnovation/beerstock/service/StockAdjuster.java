@@ -0,0 +1,108 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.StockAdjustmentMode;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies stock deltas without the lost updates of a plain read-modify-write.
+ * <p>
+ * In {@link StockAdjustmentMode#CONDITIONAL} mode the bound check and the write are one UPDATE statement, so the
+ * database row lock is the only serialization point. In {@link StockAdjustmentMode#OPTIMISTIC} mode the entity is
+ * read, bound-checked, then written only if its {@code @Version} column is unchanged and the bounds still hold in
+ * the UPDATE itself; stale writes are retried a bounded number of times before a conflict is reported, and the
+ * fresh read of a retry tells a bound hit apart from a lost race.
+ */
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockAdjuster {
+
+    private static final long BACKOFF_NANOS = 50_000L;
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BeerStockProperties properties;
+    private final StockOutbox stockOutbox;
+    private final StockJournal stockJournal;
+    private final BeerCatalogVersion beerCatalogVersion;
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+
+    public StockAdjustment adjust(Long id, int delta) {
+        if (properties.getStock().getAdjustmentMode() == StockAdjustmentMode.OPTIMISTIC) {
+            return adjustOptimistically(id, delta);
+        }
+        return transactionTemplate.execute(status -> adjustConditionally(id, delta));
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    private StockAdjustment adjustConditionally(Long id, int delta) {
+        if (beerRepository.adjustQuantity(id, delta) == 1) {
+            return applied(beerRepository.findById(id).orElseThrow(), delta, 1);
+        }
+        return beerRepository.findById(id)
+                .map(StockAdjustment::outOfBounds)
+                .orElseGet(StockAdjustment::notFound);
+    }
+
+    private StockAdjustment adjustOptimistically(Long id, int delta) {
+        int maxAttempts = Math.max(1, properties.getStock().getMaxAttempts());
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            int currentAttempt = attempt;
+            StockAdjustment adjustment = transactionTemplate.execute(status -> adjustVersioned(id, delta, currentAttempt));
+            if (adjustment != null) {
+                return adjustment;
+            }
+            retries.incrementAndGet();
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(BACKOFF_NANOS * attempt));
+        }
+        conflicts.incrementAndGet();
+        return StockAdjustment.conflict(maxAttempts);
+    }
+
+    /**
+     * @return the outcome, or {@code null} when the row changed between the read and the write
+     */
+    private StockAdjustment adjustVersioned(Long id, int delta, int attempt) {
+        Optional<Beer> optBeer = beerRepository.findById(id);
+        if (optBeer.isEmpty()) {
+            return StockAdjustment.notFound();
+        }
+
+        Beer beer = optBeer.get();
+        int quantityAfterAdjustment = beer.getQuantity() + delta;
+        if (quantityAfterAdjustment < beer.getReserved() || quantityAfterAdjustment > beer.getMax()) {
+            return StockAdjustment.outOfBounds(beer);
+        }
+
+        if (beerRepository.adjustQuantityIfVersion(id, delta, beer.getVersion()) == 0) {
+            return null;
+        }
+        return applied(beerRepository.findById(id).orElseThrow(), delta, attempt);
+    }
+
+    private StockAdjustment applied(Beer beer, int delta, int attempt) {
+        stockOutbox.stockChanged(beer.getId(), delta, beer.getQuantity());
+        stockJournal.record(beer.getId(), delta, beer.getQuantity());
+        beerCatalogVersion.bump();
+        return StockAdjustment.applied(beer, attempt);
+    }
+}
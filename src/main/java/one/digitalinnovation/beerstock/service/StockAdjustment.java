@@ -0,0 +1,42 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.beerstock.entity.Beer;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class StockAdjustment {
+
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        OUT_OF_BOUNDS,
+        CONFLICT
+    }
+
+    private final Status status;
+    private final Beer beer;
+    private final int attempts;
+
+    public static StockAdjustment applied(Beer beer, int attempts) {
+        return new StockAdjustment(Status.APPLIED, beer, attempts);
+    }
+
+    public static StockAdjustment notFound() {
+        return new StockAdjustment(Status.NOT_FOUND, null, 1);
+    }
+
+    public static StockAdjustment outOfBounds(Beer beer) {
+        return new StockAdjustment(Status.OUT_OF_BOUNDS, beer, 1);
+    }
+
+    public static StockAdjustment conflict(int attempts) {
+        return new StockAdjustment(Status.CONFLICT, null, attempts);
+    }
+
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+}
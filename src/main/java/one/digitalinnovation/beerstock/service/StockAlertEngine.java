@@ -0,0 +1,135 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.StockLevel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raises an alert when a beer crosses the reorder or the overstock threshold.
+ * <p>
+ * Each stock change is evaluated on its own against the last level of that beer, so nothing is ever rescanned. A
+ * level is only left once the fill ratio is back past its threshold by the hysteresis margin, and an alert is only
+ * raised when the level changes, so repeated or flapping changes reach the sink once. Observations carrying an older
+ * {@code @Version} than the last one seen are ignored. Beers start out at {@link StockLevel#NORMAL}; changes made
+ * inside a transaction are evaluated after commit.
+ */
+@Slf4j
+@Component
+public class StockAlertEngine {
+
+    public static final String ALERT_COUNTER = "beerstock.alerts";
+
+    private final BeerStockProperties.Alerts properties;
+    private final StockAlertSink sink;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, State> states = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockAlertEngine(BeerStockProperties properties, StockAlertSink sink, MeterRegistry meterRegistry) {
+        this.properties = properties.getAlerts();
+        this.sink = sink;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void onStockChanged(Beer beer) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Beer snapshot = new Beer(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), beer.getQuantity(), beer.getType(), beer.getVersion(), beer.getReserved());
+        AfterCommit.run(() -> evaluate(snapshot));
+    }
+
+    public void forget(Long id) {
+        AfterCommit.run(() -> states.remove(id));
+    }
+
+    public StockLevel levelOf(Long id) {
+        State state = states.get(id);
+        return state == null ? StockLevel.NORMAL : state.level;
+    }
+
+    private void evaluate(Beer beer) {
+        long version = beer.getVersion() == null ? 0L : beer.getVersion();
+        StockLevel[] transition = new StockLevel[2];
+        states.compute(beer.getId(), (id, state) -> {
+            StockLevel current = state == null ? StockLevel.NORMAL : state.level;
+            if (state != null && version < state.version) {
+                return state;
+            }
+            StockLevel next = next(current, beer.getQuantity(), beer.getMax());
+            if (next != current) {
+                transition[0] = current;
+                transition[1] = next;
+            }
+            return new State(next, version);
+        });
+
+        if (transition[1] != null) {
+            publish(beer, transition[0], transition[1]);
+        }
+    }
+
+    private StockLevel next(StockLevel current, int quantity, int max) {
+        if (max <= 0) {
+            return StockLevel.NORMAL;
+        }
+        double ratio = (double) quantity / max;
+        if (ratio <= properties.getLowStockRatio()) {
+            return StockLevel.LOW;
+        }
+        if (ratio >= properties.getOverstockRatio()) {
+            return StockLevel.OVERSTOCK;
+        }
+        if (current == StockLevel.LOW && ratio <= properties.getLowStockRatio() + properties.getHysteresis()) {
+            return StockLevel.LOW;
+        }
+        if (current == StockLevel.OVERSTOCK && ratio >= properties.getOverstockRatio() - properties.getHysteresis()) {
+            return StockLevel.OVERSTOCK;
+        }
+        return StockLevel.NORMAL;
+    }
+
+    /**
+     * A failing sink is logged and never fails the stock change that raised the alert.
+     */
+    private void publish(Beer beer, StockLevel previousLevel, StockLevel level) {
+        StockAlertDTO alert = StockAlertDTO.builder()
+                .beerId(beer.getId())
+                .name(beer.getName())
+                .brand(beer.getBrand())
+                .level(level)
+                .previousLevel(previousLevel)
+                .quantity(beer.getQuantity())
+                .max(beer.getMax())
+                .raisedAt(Instant.now())
+                .build();
+        try {
+            sink.publish(alert);
+            Counter.builder(ALERT_COUNTER)
+                    .tag("level", level.name())
+                    .register(meterRegistry)
+                    .increment();
+        } catch (RuntimeException e) {
+            log.warn("Stock alert for beer {} could not be published", beer.getId(), e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class State {
+
+        private final StockLevel level;
+        private final long version;
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+
+/**
+ * Destination of the alerts raised by {@link StockAlertEngine}, selected with {@code beerstock.alerts.sink}.
+ * Implementations are called on the thread that changed the stock, so they must not block.
+ */
+public interface StockAlertSink {
+
+    void publish(StockAlertDTO alert);
+}
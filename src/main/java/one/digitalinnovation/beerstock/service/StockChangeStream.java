@@ -0,0 +1,368 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.ReplicaRouting;
+import one.digitalinnovation.beerstock.dto.StockChangeDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * Pushes committed stock changes to server-sent event subscribers.
+ * <p>
+ * Changes are appended to one ring buffer shared by all subscribers, and the latest state of every beer is kept
+ * alongside it, so neither a new subscriber nor a push ever queries the database. Each subscriber only holds the id
+ * of the last event it was sent: on every push it reads what was appended since, sends the latest change per beer as
+ * one {@code changes} event, and moves on. A subscriber that falls further behind than the buffer, or reconnects with
+ * a {@code Last-Event-ID} the buffer no longer holds, gets a {@code snapshot} event with the state of every beer
+ * instead. Events carry the resulting quantity rather than a delta, so replaying one twice is harmless.
+ * <p>
+ * Writes block, so a client that stops reading would hold a sender until the connector's write timeout. A subscriber
+ * whose write has taken longer than the send timeout is dropped instead: it is never scheduled again, its connection
+ * is completed once the write returns, and the pool gets a spare sender until then, up to a bound, so the other
+ * subscribers keep being served.
+ * <p>
+ * Event ids start from the boot time, so an id from a previous run is never mistaken for one of this run. The
+ * snapshot is loaded once the application is ready; in ledger mode it reflects the persisted quantities until each
+ * beer changes again.
+ */
+@Slf4j
+@Component
+public class StockChangeStream {
+
+    public static final String SNAPSHOT_EVENT = "snapshot";
+    public static final String CHANGES_EVENT = "changes";
+
+    private static final long NEEDS_SNAPSHOT = Long.MIN_VALUE;
+    private static final long LOADED_VERSION = -1L;
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final BeerStockProperties.StockEvents properties;
+
+    private final AtomicReferenceArray<Event> buffer;
+    private final int mask;
+    private final Map<Long, Event> latest = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final AtomicInteger spareSenders = new AtomicInteger();
+    private volatile long head = Instant.now().toEpochMilli() * 1_000;
+
+    @Autowired
+    public StockChangeStream(BeerRepository beerRepository, PlatformTransactionManager transactionManager,
+                             BeerStockProperties properties, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.properties = properties.getStockEvents();
+
+        int capacity = Integer.highestOneBit(Math.max(2, this.properties.getBufferSize() - 1)) << 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        AtomicInteger threads = new AtomicInteger();
+        int senderThreads = Math.max(1, this.properties.getSenderThreads());
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "stock-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("beerstock.stock-events.subscribers", subscribers, Set::size)
+                .description("Open server-sent event connections")
+                .register(meterRegistry);
+    }
+
+    public void onStockChanged(Beer beer) {
+        StockChangeDTO change = new StockChangeDTO(beer.getId(), beer.getQuantity(), beer.getMax(), false);
+        long version = beer.getVersion() == null ? 0L : beer.getVersion();
+        AfterCommit.run(() -> append(change, version));
+    }
+
+    public void onDeleted(Beer beer) {
+        StockChangeDTO change = new StockChangeDTO(beer.getId(), 0, beer.getMax(), true);
+        AfterCommit.run(() -> append(change, Long.MAX_VALUE));
+    }
+
+    /**
+     * @param lastEventId id of the last event the client received, resumed from when the buffer still holds it
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(properties.getTimeout().toMillis()), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, resumableFrom(lastEventId));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        ReplicaRouting.onPrimary(() -> readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<StockChangeDTO> changes = beerRepository.streamAllStock()) {
+                changes.forEach(change -> latest.putIfAbsent(change.getId(), new Event(head, LOADED_VERSION, change)));
+            }
+        }));
+        log.info("Stock event snapshot loaded with {} beers", latest.size());
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.stock-events.push-interval:PT0.25S}")
+    public void push() {
+        long now = System.nanoTime();
+        subscribers.forEach(subscriber -> {
+            if (subscriber.isStalled(now, properties.getSendTimeout().toNanos())) {
+                drop(subscriber);
+            } else {
+                schedule(subscriber);
+            }
+        });
+    }
+
+    /**
+     * Ends every open stream while the web server still runs; the context closed event comes before it is stopped.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> {
+            subscribers.remove(subscriber);
+            try {
+                subscriber.emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Stock event stream could not be completed on shutdown", e);
+            }
+        });
+    }
+
+    /**
+     * Changes with an older {@code @Version} than the latest one of the same beer are dropped, which covers two
+     * writers committing in one order and reaching this method in the other.
+     */
+    private synchronized void append(StockChangeDTO change, long version) {
+        Event previous = latest.get(change.getId());
+        if (previous != null && previous.version > version) {
+            return;
+        }
+        Event event = new Event(head + 1, version, change);
+        buffer.set((int) (event.id & mask), event);
+        latest.put(change.getId(), event);
+        head = event.id;
+    }
+
+    private long resumableFrom(Long lastEventId) {
+        long current = head;
+        if (lastEventId == null || lastEventId > current || current - lastEventId > mask) {
+            return NEEDS_SNAPSHOT;
+        }
+        return lastEventId;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> {
+                    subscriber.sendingSince = System.nanoTime();
+                    try {
+                        send(subscriber);
+                    } finally {
+                        subscriber.sendingSince = 0L;
+                        subscriber.sending.set(false);
+                        if (subscriber.dropped) {
+                            release(subscriber);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            long current = head;
+            if (subscriber.cursor == NEEDS_SNAPSHOT || !sendChanges(subscriber, current)) {
+                sendSnapshot(subscriber, current);
+            } else if (subscriber.cursor == current && isIdle(subscriber)) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                subscriber.lastSentAt = Instant.now();
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * @return false when the buffer no longer holds every event the subscriber is missing
+     */
+    private boolean sendChanges(Subscriber subscriber, long current) throws IOException {
+        if (current == subscriber.cursor) {
+            return true;
+        }
+        if (current - subscriber.cursor > mask) {
+            return false;
+        }
+
+        Map<Long, StockChangeDTO> changes = new LinkedHashMap<>();
+        for (long id = subscriber.cursor + 1; id <= current; id++) {
+            Event event = buffer.get((int) (id & mask));
+            if (event == null || event.id != id) {
+                return false;
+            }
+            changes.remove(event.change.getId());
+            changes.put(event.change.getId(), event.change);
+        }
+        send(subscriber, CHANGES_EVENT, current, new ArrayList<>(changes.values()));
+        return true;
+    }
+
+    /**
+     * The state is read after {@code current}, so it is at least as new as that event; anything newer is sent again
+     * by the next push, which is harmless.
+     */
+    private void sendSnapshot(Subscriber subscriber, long current) throws IOException {
+        List<StockChangeDTO> beers = new ArrayList<>(latest.size());
+        latest.values().forEach(event -> {
+            if (!event.change.isDeleted()) {
+                beers.add(event.change);
+            }
+        });
+        send(subscriber, SNAPSHOT_EVENT, current, beers);
+    }
+
+    private void send(Subscriber subscriber, String name, long id, List<StockChangeDTO> changes) throws IOException {
+        subscriber.emitter.send(SseEmitter.event().name(name).id(Long.toString(id)).data(changes, MediaType.APPLICATION_JSON));
+        subscriber.cursor = id;
+        subscriber.lastSentAt = Instant.now();
+    }
+
+    /**
+     * Called from the push thread while the subscriber's write is still blocked; completing the emitter here would
+     * wait on that write, so it is left to {@link #release(Subscriber)}.
+     */
+    private void drop(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.spare = addSpareSender();
+        subscriber.dropped = true;
+        log.warn("Stock event subscriber dropped after a write blocked for more than {}", properties.getSendTimeout());
+        if (subscriber.sendingSince == 0L) {
+            release(subscriber);
+        }
+    }
+
+    /**
+     * Runs once the blocked write of a dropped subscriber has returned.
+     */
+    private void release(Subscriber subscriber) {
+        if (!subscriber.released.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscriber.spare) {
+            resizeSenders(-1);
+            spareSenders.decrementAndGet();
+        }
+        try {
+            subscriber.emitter.complete();
+        } catch (RuntimeException e) {
+            log.debug("Dropped stock event subscriber could not be completed", e);
+        }
+    }
+
+    private boolean addSpareSender() {
+        if (spareSenders.incrementAndGet() > properties.getMaxSpareSenders()) {
+            spareSenders.decrementAndGet();
+            return false;
+        }
+        resizeSenders(1);
+        return true;
+    }
+
+    /**
+     * Grows the maximum before the core size and shrinks it after, as the pool requires core <= maximum throughout.
+     */
+    private synchronized void resizeSenders(int by) {
+        int size = senders.getCorePoolSize() + by;
+        if (by > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private boolean isIdle(Subscriber subscriber) {
+        return subscriber.lastSentAt.plus(properties.getHeartbeatInterval()).isBefore(Instant.now());
+    }
+
+    @AllArgsConstructor
+    private static class Event {
+
+        private final long id;
+        private final long version;
+        private final StockChangeDTO change;
+    }
+
+    /**
+     * Only touched by one sender at a time, guarded by {@link #sending}.
+     */
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long cursor;
+        private volatile Instant lastSentAt = Instant.now();
+        /**
+         * {@link System#nanoTime()} when the running write started, 0 when none is running.
+         */
+        private volatile long sendingSince;
+        private volatile boolean dropped;
+        private volatile boolean spare;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private boolean isStalled(long now, long sendTimeoutNanos) {
+            long since = sendingSince;
+            return since != 0L && now - since > sendTimeoutNanos;
+        }
+    }
+}
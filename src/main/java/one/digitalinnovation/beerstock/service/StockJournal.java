@@ -0,0 +1,176 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.RequestIdFilter;
+import one.digitalinnovation.beerstock.dto.StockMovementPageDTO;
+import one.digitalinnovation.beerstock.dto.StockQuantityAtDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.entity.StockSnapshot;
+import one.digitalinnovation.beerstock.mapper.StockMovementMapper;
+import one.digitalinnovation.beerstock.repository.StockMovementRepository;
+import one.digitalinnovation.beerstock.repository.StockSnapshotRepository;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only history of stock movements, written in the transaction of the stock change that produces them, so a
+ * movement is committed, or rolled back, together with its change and is never lost in between.
+ * <p>
+ * As with {@link StockOutbox}, every caller writes the beer row before recording, so a movement is inserted while the
+ * row lock is held and the movements of one beer get increasing ids in the order their changes commit; the movement
+ * with the highest id of a beer therefore always carries its latest quantity.
+ * <p>
+ * Every so often the quantity after the last movement of each beer that moved is stored as a snapshot, and the
+ * quantity at any point in time is rebuilt from the latest snapshot before it plus the movements recorded after that
+ * snapshot.
+ */
+@Slf4j
+@Component
+public class StockJournal {
+
+    private static final String INSERT_MOVEMENT_SQL =
+            "insert into stock_movement (beer_id, delta, quantity, occurred_at, request_id) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_MOVEMENT_FROM_BEER_SQL =
+            "insert into stock_movement (beer_id, delta, quantity, occurred_at, request_id) " +
+            "select id, ?, quantity, ?, ? from beer where id = ?";
+    private static final String INSERT_SNAPSHOTS_SQL =
+            "insert into stock_snapshot (beer_id, movement_id, quantity, taken_at) " +
+            "select m.beer_id, m.id, m.quantity, m.occurred_at from stock_movement m where m.id in " +
+            "(select max(l.id) from stock_movement l where l.id > ? and l.id <= ? group by l.beer_id)";
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BeerStockProperties.Journal properties;
+    private final StockMovementMapper stockMovementMapper = StockMovementMapper.INSTANCE;
+
+    private volatile long lastSnapshotMovementId = -1L;
+
+    @Autowired
+    public StockJournal(StockMovementRepository stockMovementRepository, StockSnapshotRepository stockSnapshotRepository,
+                        JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, BeerStockProperties properties) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.getJournal();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Collection<Beer> beers) {
+        recordAll(beers.stream()
+                .map(beer -> movement(beer.getId(), beer.getQuantity(), beer.getQuantity()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * @param quantity quantity of the beer right after the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long beerId, int delta, int quantity) {
+        recordAll(List.of(movement(beerId, delta, quantity)));
+    }
+
+    /**
+     * Records one movement per beer with the quantity read from its row, for writers that only know the deltas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Map<Long, Integer> deltas) {
+        if (!properties.isEnabled() || deltas.isEmpty()) {
+            return;
+        }
+        Timestamp occurredAt = Timestamp.from(Instant.now());
+        String requestId = MDC.get(RequestIdFilter.REQUEST_ID_KEY);
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((beerId, delta) -> batch.add(new Object[]{delta, occurredAt, requestId, beerId}));
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_FROM_BEER_SQL, batch);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<StockMovement> movements) {
+        if (!properties.isEnabled() || movements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, movements.stream()
+                .map(movement -> new Object[]{movement.getBeerId(), movement.getDelta(), movement.getQuantity(),
+                        Timestamp.from(movement.getOccurredAt()), movement.getRequestId()})
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * @param quantity quantity of the beer right after the change
+     */
+    public StockMovement movement(Long beerId, int delta, int quantity) {
+        return new StockMovement(null, beerId, delta, quantity, Instant.now(), MDC.get(RequestIdFilter.REQUEST_ID_KEY));
+    }
+
+    public StockMovementPageDTO findHistory(Long beerId, Instant from, Instant to, Long after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<StockMovement> movements = stockMovementRepository.findHistory(beerId,
+                Optional.ofNullable(from).orElse(Instant.EPOCH),
+                Optional.ofNullable(to).orElse(Instant.now()),
+                Optional.ofNullable(after).orElse(0L),
+                PageRequest.of(0, pageSize + 1));
+        boolean hasNext = movements.size() > pageSize;
+        List<StockMovement> page = hasNext ? movements.subList(0, pageSize) : movements;
+        return StockMovementPageDTO.builder()
+                .content(page.stream().map(stockMovementMapper::toDTO).collect(Collectors.toList()))
+                .size(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * Rebuilds the quantity of a beer at the given time; zero before its first movement.
+     */
+    public StockQuantityAtDTO findQuantityAt(Long beerId, Instant at) {
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository.findFirstByBeerIdAndTakenAtLessThanEqualOrderByTakenAtDescMovementIdDesc(beerId, at);
+        StockMovementRepository.MovementTotal replayed = stockMovementRepository.sumAfter(beerId,
+                snapshot.map(StockSnapshot::getMovementId).orElse(0L), at);
+        return StockQuantityAtDTO.builder()
+                .beerId(beerId)
+                .at(at)
+                .quantity(snapshot.map(StockSnapshot::getQuantity).orElse(0) + (int) replayed.getDelta())
+                .replayedMovements((int) replayed.getCount())
+                .build();
+    }
+
+    /**
+     * Snapshots every beer that moved since the previous snapshot, at its last movement.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.journal.snapshot-interval:PT5M}", initialDelayString = "${beerstock.journal.snapshot-interval:PT5M}")
+    public synchronized void snapshot() {
+        if (lastSnapshotMovementId < 0) {
+            lastSnapshotMovementId = stockSnapshotRepository.findLastMovementId();
+        }
+        Long lastMovementId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from stock_movement", Long.class);
+        if (lastMovementId == null || lastMovementId <= lastSnapshotMovementId) {
+            return;
+        }
+
+        int snapshots = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_SNAPSHOTS_SQL, lastSnapshotMovementId, lastMovementId));
+        lastSnapshotMovementId = lastMovementId;
+        log.debug("Stock journal snapshot of {} beers up to movement {}", snapshots, lastMovementId);
+    }
+}
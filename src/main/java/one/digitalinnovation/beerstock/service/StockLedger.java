@@ -0,0 +1,359 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory owner of the stock of beers that are being adjusted, with write-behind persistence.
+ * <p>
+ * Each beer gets a lock-free counter that enforces the same {@code reserved..max} rule as {@link StockAdjuster}.
+ * Accepted deltas are coalesced per beer and flushed as one JDBC batch on a fixed delay, and drained once more on
+ * shutdown; the outbox event and the journal movement of each write carry the coalesced delta. Deltas accepted
+ * after the last flush are lost if the process dies without shutting down. A beer not adjusted since the previous
+ * flush is dropped by the next one, so the ledger only holds the beers that are being adjusted.
+ * <p>
+ * An eviction closes the entry before writing its deltas, so an adjustment racing it is either part of that write or
+ * waits and goes to an entry reloaded from the row. Flushes and evictions take turns, so a write that fails can always
+ * give its deltas back to the entry they came from.
+ * <p>
+ * The reserved quantity is the one read when the beer was loaded; {@link StockReservations} evicts a beer before
+ * holding or releasing its stock, so only an entry loaded between that eviction and the hold itself can still see the
+ * old figure.
+ */
+@Slf4j
+@Component
+public class StockLedger {
+
+    private static final long CLOSED_BACKOFF_NANOS = 50_000L;
+    private static final String APPLY_DELTA_SQL = "update beer set quantity = quantity + ?, version = version + 1 where id = ?";
+
+    private final BeerRepository beerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockOutbox stockOutbox;
+    private final StockJournal stockJournal;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final BeerStockProperties.Ledger properties;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockLedger(BeerRepository beerRepository, JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate, StockOutbox stockOutbox, StockJournal stockJournal,
+                       BeerCatalogVersion beerCatalogVersion, BeerStockProperties properties) {
+        this.beerRepository = beerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stockOutbox = stockOutbox;
+        this.stockJournal = stockJournal;
+        this.beerCatalogVersion = beerCatalogVersion;
+        this.properties = properties.getStock().getLedger();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public StockAdjustment adjust(Long id, int delta) {
+        while (true) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                Optional<Beer> optBeer = beerRepository.findById(id);
+                if (optBeer.isEmpty()) {
+                    return StockAdjustment.notFound();
+                }
+                Entry loaded = new Entry(optBeer.get());
+                entry = Optional.ofNullable(entries.putIfAbsent(id, loaded)).orElse(loaded);
+            }
+
+            StockAdjustment adjustment = entry.adjust(delta);
+            if (adjustment != null) {
+                return adjustment;
+            }
+            LockSupport.parkNanos(CLOSED_BACKOFF_NANOS);
+        }
+    }
+
+    /**
+     * Replaces the persisted quantity of the given beer with the one held by the ledger, if any.
+     */
+    public void overlay(BeerDTO beerDTO) {
+        Entry entry = entries.get(beerDTO.getId());
+        if (entry != null) {
+            entry.quantity().ifPresent(beerDTO::setQuantity);
+        }
+    }
+
+    /**
+     * Closes the given beers, writes their pending deltas and forgets them, so that the next adjustment reloads the
+     * row. A beer whose deltas could not be written is reopened as it was.
+     */
+    public synchronized void evict(Iterable<Long> ids) {
+        SortedMap<Long, Entry> evicted = new TreeMap<>();
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                evicted.put(id, entry);
+            }
+        }
+        flush(evicted, true);
+        forget(evicted);
+    }
+
+    /**
+     * As {@link #evict(Iterable)}, keeping the given beers closed until the action returns, so that no adjustment
+     * reloads a row the action is still writing; adjustments of those beers wait for it. Only the eviction itself
+     * holds off flushes and other evictions; the action runs without the ledger lock.
+     */
+    public <T, E extends Exception> T evictDuring(Iterable<Long> ids, Action<T, E> action) throws E {
+        SortedMap<Long, Entry> held = new TreeMap<>();
+        try {
+            for (Long id : ids) {
+                held.put(id, hold(id));
+            }
+            synchronized (this) {
+                flush(held, true);
+            }
+            return action.run();
+        } finally {
+            held.keySet().forEach(this::unhold);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.stock.ledger.flush-interval:PT0.5S}")
+    public synchronized void flush() {
+        flush(new TreeMap<>(entries), false);
+    }
+
+    @PreDestroy
+    public void drain() {
+        if (!entries.isEmpty()) {
+            log.info("Draining stock ledger of {} beers before shutdown", entries.size());
+            flush();
+        }
+    }
+
+    /**
+     * Sends the coalesced deltas in id order, so that concurrent batch writers always lock rows in the same order.
+     * Entries with nothing to write are closed and forgotten, as their rows already hold their quantity.
+     */
+    private void flush(SortedMap<Long, Entry> snapshot, boolean closing) {
+        List<Object[]> batch = new ArrayList<>();
+        List<Entry> batchEntries = new ArrayList<>();
+        SortedMap<Long, Entry> idle = new TreeMap<>();
+        snapshot.forEach((id, entry) -> {
+            int delta = closing ? entry.close() : entry.takePending();
+            if (!closing && delta == 0 && entry.closeIfIdle()) {
+                idle.put(id, entry);
+            }
+            if (delta != 0) {
+                batch.add(new Object[]{delta, id});
+                batchEntries.add(entry);
+            }
+            if (batch.size() >= properties.getFlushBatchSize()) {
+                write(batch, batchEntries);
+                batch.clear();
+                batchEntries.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            write(batch, batchEntries);
+        }
+        forget(idle);
+    }
+
+    /**
+     * Drops the entries still closed and not held; those reopened by a failed write stay, with their deltas.
+     */
+    private void forget(SortedMap<Long, Entry> closed) {
+        closed.forEach((id, entry) -> entries.computeIfPresent(id, (key, current) ->
+                current == entry && current.isClosed() && current.holds == 0 ? null : current));
+    }
+
+    /**
+     * Marks the beer as held, installing a closed stand-in when it is not loaded.
+     */
+    private Entry hold(Long id) {
+        return entries.compute(id, (key, current) -> {
+            Entry entry = current == null ? new Entry() : current;
+            entry.holds++;
+            return entry;
+        });
+    }
+
+    private void unhold(Long id) {
+        entries.computeIfPresent(id, (key, current) -> --current.holds == 0 && current.isClosed() ? null : current);
+    }
+
+    private void write(List<Object[]> batch, List<Entry> batchEntries) {
+        try {
+            Map<Long, Integer> deltas = new TreeMap<>();
+            batch.forEach(delta -> deltas.put((Long) delta[1], (Integer) delta[0]));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+                stockOutbox.stockChanged(deltas);
+                stockJournal.record(deltas);
+                beerCatalogVersion.bump();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Stock ledger flush of {} beers failed, deltas kept for the next attempt", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                batchEntries.get(i).giveBack((Integer) batch.get(i)[0]);
+            }
+            return;
+        }
+        batchEntries.forEach(entry -> entry.version.incrementAndGet());
+    }
+
+    @FunctionalInterface
+    public interface Action<T, E extends Exception> {
+
+        T run() throws E;
+    }
+
+    /**
+     * Ledger state of one beer. The quantity and the delta not yet written share one {@code long}, so a single CAS
+     * both accepts a delta and queues it for the next write; an entry being evicted holds {@link #CLOSED} instead.
+     */
+    private static class Entry {
+
+        private static final long CLOSED = Long.MIN_VALUE;
+
+        private final Beer beer;
+        private final AtomicLong version;
+        private final AtomicLong state;
+        private int closedQuantity;
+        /**
+         * Callers of {@link #evictDuring} still running; only read and written inside a map compute on this beer.
+         */
+        private int holds;
+
+        private Entry(Beer beer) {
+            this.beer = beer;
+            this.version = new AtomicLong(beer.getVersion());
+            this.state = new AtomicLong(pack(beer.getQuantity(), 0));
+        }
+
+        /**
+         * A closed stand-in for a beer that is not loaded, holding off adjustments until it is forgotten.
+         */
+        private Entry() {
+            this.beer = null;
+            this.version = new AtomicLong();
+            this.state = new AtomicLong(CLOSED);
+        }
+
+        /**
+         * @return the outcome, or {@code null} when the entry is closed and the caller must look it up again
+         */
+        private StockAdjustment adjust(int delta) {
+            while (true) {
+                long current = state.get();
+                if (current == CLOSED) {
+                    return null;
+                }
+                int quantity = quantityOf(current);
+                int quantityAfterAdjustment = quantity + delta;
+                if (quantityAfterAdjustment < beer.getReserved() || quantityAfterAdjustment > beer.getMax()) {
+                    return StockAdjustment.outOfBounds(toBeer(quantity));
+                }
+                if (state.compareAndSet(current, pack(quantityAfterAdjustment, pendingOf(current) + delta))) {
+                    return StockAdjustment.applied(toBeer(quantityAfterAdjustment), 1);
+                }
+            }
+        }
+
+        private Optional<Integer> quantity() {
+            long current = state.get();
+            return current == CLOSED ? Optional.empty() : Optional.of(quantityOf(current));
+        }
+
+        private int takePending() {
+            while (true) {
+                long current = state.get();
+                if (current == CLOSED || pendingOf(current) == 0) {
+                    return 0;
+                }
+                if (state.compareAndSet(current, pack(quantityOf(current), 0))) {
+                    return pendingOf(current);
+                }
+            }
+        }
+
+        /**
+         * Turns every later adjustment away; called only while flushes and evictions are held off.
+         *
+         * @return the delta not yet written
+         */
+        private int close() {
+            long current = state.getAndSet(CLOSED);
+            if (current == CLOSED) {
+                return 0;
+            }
+            closedQuantity = quantityOf(current);
+            return pendingOf(current);
+        }
+
+        /**
+         * Closes the entry only while it has no delta left to write; an adjustment accepted in between keeps it open.
+         */
+        private boolean closeIfIdle() {
+            long current = state.get();
+            return current != CLOSED && pendingOf(current) == 0 && state.compareAndSet(current, CLOSED);
+        }
+
+        private boolean isClosed() {
+            return state.get() == CLOSED;
+        }
+
+        /**
+         * Puts back a delta whose write failed, reopening the entry if an eviction had closed it.
+         */
+        private void giveBack(int delta) {
+            while (true) {
+                long current = state.get();
+                long restored = current == CLOSED
+                        ? pack(closedQuantity, delta)
+                        : pack(quantityOf(current), pendingOf(current) + delta);
+                if (state.compareAndSet(current, restored)) {
+                    return;
+                }
+            }
+        }
+
+        private Beer toBeer(int quantity) {
+            return new Beer(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), quantity, beer.getType(), version.get(), beer.getReserved());
+        }
+
+        private static long pack(int quantity, int pending) {
+            return ((long) quantity << 32) | (pending & 0xFFFFFFFFL);
+        }
+
+        private static int quantityOf(long state) {
+            return (int) (state >> 32);
+        }
+
+        private static int pendingOf(long state) {
+            return (int) state;
+        }
+    }
+}
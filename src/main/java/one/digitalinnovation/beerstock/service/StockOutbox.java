@@ -0,0 +1,120 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.RequestIdFilter;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.OutboxEvent;
+import one.digitalinnovation.beerstock.enums.OutboxEventType;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Write side of the transactional outbox: events are inserted in the transaction of the beer change they describe,
+ * so they are committed, or rolled back, together with it, and {@link OutboxRelay} publishes them afterwards.
+ * <p>
+ * Every caller writes the beer row, or the location row, before appending, so an event is inserted while the row
+ * lock is held and the events of one beer, or of one location, get increasing ids in the order their changes commit.
+ */
+@Component
+public class StockOutbox {
+
+    private static final String INSERT_EVENT_SQL =
+            "insert into outbox_event (beer_id, location, type, delta, quantity, occurred_at, request_id) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_STOCK_CHANGED_FROM_BEER_SQL =
+            "insert into outbox_event (beer_id, type, delta, quantity, occurred_at, request_id) " +
+            "select id, '" + OutboxEventType.STOCK_CHANGED.name() + "', ?, quantity, ?, ? from beer where id = ?";
+    private static final String INSERT_LOCATION_STOCK_CHANGED_FROM_LOCATION_SQL =
+            "insert into outbox_event (beer_id, location, type, delta, quantity, occurred_at, request_id) " +
+            "select beer_id, location, '" + OutboxEventType.LOCATION_STOCK_CHANGED.name() + "', ?, quantity, ?, ? " +
+            "from location_stock where beer_id = ? and location = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BeerStockProperties.Outbox properties;
+
+    @Autowired
+    public StockOutbox(JdbcTemplate jdbcTemplate, BeerStockProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.getOutbox();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Collection<Beer> beers) {
+        appendAll(beers.stream()
+                .map(beer -> event(beer.getId(), OutboxEventType.CREATED, beer.getQuantity(), beer.getQuantity()))
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Long beerId) {
+        appendAll(List.of(event(beerId, OutboxEventType.DELETED, 0, 0)));
+    }
+
+    /**
+     * @param quantity quantity of the beer right after the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stockChanged(Long beerId, int delta, int quantity) {
+        appendAll(List.of(event(beerId, OutboxEventType.STOCK_CHANGED, delta, quantity)));
+    }
+
+    /**
+     * Appends one event per beer with the quantity read from its row, for writers that only know the deltas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stockChanged(Map<Long, Integer> deltas) {
+        if (!properties.isEnabled() || deltas.isEmpty()) {
+            return;
+        }
+        Timestamp occurredAt = Timestamp.from(Instant.now());
+        String requestId = MDC.get(RequestIdFilter.REQUEST_ID_KEY);
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((beerId, delta) -> batch.add(new Object[]{delta, occurredAt, requestId, beerId}));
+        jdbcTemplate.batchUpdate(INSERT_STOCK_CHANGED_FROM_BEER_SQL, batch);
+    }
+
+    /**
+     * Appends the event of one location write with the quantity read from its row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void locationStockChanged(Long beerId, String location, int delta) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_LOCATION_STOCK_CHANGED_FROM_LOCATION_SQL,
+                delta, Timestamp.from(Instant.now()), MDC.get(RequestIdFilter.REQUEST_ID_KEY), beerId, location);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void locationCapacityChanged(Long beerId, String location, int max) {
+        OutboxEvent event = event(beerId, OutboxEventType.LOCATION_CAPACITY_CHANGED, 0, max);
+        event.setLocation(location);
+        appendAll(List.of(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<OutboxEvent> events) {
+        if (!properties.isEnabled() || events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events.stream()
+                .map(event -> new Object[]{event.getBeerId(), event.getLocation(), event.getType().name(), event.getDelta(), event.getQuantity(),
+                        Timestamp.from(event.getOccurredAt()), event.getRequestId()})
+                .collect(Collectors.toList()));
+    }
+
+    public OutboxEvent event(Long beerId, OutboxEventType type, int delta, int quantity) {
+        return new OutboxEvent(null, beerId, null, type, delta, quantity, Instant.now(), MDC.get(RequestIdFilter.REQUEST_ID_KEY));
+    }
+}
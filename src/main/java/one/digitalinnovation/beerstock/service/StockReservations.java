@@ -0,0 +1,237 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.StockHold;
+import one.digitalinnovation.beerstock.exceptions.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.exceptions.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Holds on stock that are either committed into a decrement or released, by the caller or once they expire.
+ * <p>
+ * A hold moves the quantity into the beer's {@code reserved} column with one guarded UPDATE, and every stock write
+ * keeps {@code quantity} at or above {@code reserved}, so held units cannot be decremented by anyone else. Expiry is
+ * tracked by an {@link ExpiryWheel}: each tick looks at one slot only, instead of scanning every hold or the table.
+ * <p>
+ * Whoever removes a hold from the map owns it, so a commit, a release and the expiry of the same hold never apply
+ * twice. Each hold is also written to the {@link StockHold} table in the transaction that reserves it, and deleting
+ * that row is what entitles a caller to move its quantity out of {@code reserved}: holds left behind by an instance
+ * that stopped are given back by whichever instance sweeps them first once they expire, while the holds of running
+ * instances are left alone.
+ */
+@Slf4j
+@Component
+public class StockReservations {
+
+    private final BeerRepository beerRepository;
+    private final StockHoldRepository stockHoldRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StockLedger stockLedger;
+    private final StockOutbox stockOutbox;
+    private final StockJournal stockJournal;
+    private final BeerCatalogVersion beerCatalogVersion;
+    private final BeerStockProperties.Reservations properties;
+    private final ExpiryWheel<Reservation> expiryWheel;
+
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockReservations(BeerRepository beerRepository, StockHoldRepository stockHoldRepository, TransactionTemplate transactionTemplate,
+                             StockLedger stockLedger, StockOutbox stockOutbox, StockJournal stockJournal, BeerCatalogVersion beerCatalogVersion,
+                             BeerStockProperties properties) {
+        this.beerRepository = beerRepository;
+        this.stockHoldRepository = stockHoldRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.stockLedger = stockLedger;
+        this.stockOutbox = stockOutbox;
+        this.stockJournal = stockJournal;
+        this.beerCatalogVersion = beerCatalogVersion;
+        this.properties = properties.getReservations();
+        this.expiryWheel = new ExpiryWheel<>(this.properties.getTick(), this.properties.getWheelSize(), System.nanoTime());
+    }
+
+    /**
+     * Gives back the expired holds still in the table, which only an instance that stopped before expiring them can
+     * have left there.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${beerstock.reservations.orphan-sweep-interval:PT1M}", initialDelayString = "${beerstock.reservations.orphan-sweep-interval:PT1M}")
+    public void releaseOrphaned() {
+        List<StockHold> expired = stockHoldRepository.findByExpiresAtBefore(Instant.now());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        stockLedger.evict(expired.stream().map(StockHold::getBeerId).collect(Collectors.toSet()));
+        Integer released = transactionTemplate.execute(status -> {
+            SortedMap<Long, Integer> quantities = new TreeMap<>();
+            for (StockHold hold : expired) {
+                if (stockHoldRepository.deleteHold(hold.getId()) == 1) {
+                    quantities.merge(hold.getBeerId(), hold.getQuantity(), Integer::sum);
+                }
+            }
+            quantities.forEach(beerRepository::release);
+            return quantities.size();
+        });
+        log.info("Released expired holds left on {} beers", released);
+    }
+
+    public ReservationDTO reserve(Long beerId, int quantity, Duration timeToLive) throws BeerNotFoundException, BeerStockLessThanZeroException {
+        Duration holdFor = holdFor(timeToLive);
+        long deadline = System.nanoTime() + holdFor.toNanos();
+        Reservation reservation = new Reservation(UUID.randomUUID(), beerId, quantity, Instant.now().plus(holdFor));
+        stockLedger.evict(List.of(beerId));
+        Boolean held = transactionTemplate.execute(status -> {
+            if (beerRepository.reserve(beerId, quantity) == 0) {
+                return false;
+            }
+            stockHoldRepository.save(new StockHold(reservation.id, beerId, quantity, reservation.expiresAt));
+            return true;
+        });
+        if (!Boolean.TRUE.equals(held)) {
+            if (!beerRepository.existsById(beerId)) {
+                throw new BeerNotFoundException(beerId);
+            }
+            throw new BeerStockLessThanZeroException(beerId, quantity);
+        }
+
+        reservations.put(reservation.id, reservation);
+        reservation.timeout = expiryWheel.schedule(reservation, deadline);
+        return reservation.toDTO();
+    }
+
+    /**
+     * Turns the hold into a decrement of the same quantity.
+     */
+    public Committed commit(UUID id) throws ReservationNotFoundException {
+        Reservation reservation = take(id);
+        stockLedger.evict(List.of(reservation.beerId));
+        Beer beer = transactionTemplate.execute(status -> {
+            if (stockHoldRepository.deleteHold(id) == 0) {
+                return null;
+            }
+            if (beerRepository.commitReserved(reservation.beerId, reservation.quantity) == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+            Beer committed = beerRepository.findById(reservation.beerId).orElseThrow();
+            stockOutbox.stockChanged(committed.getId(), -reservation.quantity, committed.getQuantity());
+            stockJournal.record(committed.getId(), -reservation.quantity, committed.getQuantity());
+            beerCatalogVersion.bump();
+            return committed;
+        });
+        if (beer == null) {
+            throw new ReservationNotFoundException(id);
+        }
+        return new Committed(reservation.toDTO(), beer);
+    }
+
+    public void release(UUID id) throws ReservationNotFoundException {
+        Reservation reservation = take(id);
+        stockLedger.evict(List.of(reservation.beerId));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (stockHoldRepository.deleteHold(id) == 1) {
+                beerRepository.release(reservation.beerId, reservation.quantity);
+            }
+        });
+    }
+
+    /**
+     * Advances the wheel and gives back the stock of the holds that expired, with one UPDATE per beer; a hold already
+     * swept by another instance is skipped.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.reservations.tick:PT0.1S}")
+    public void expire() {
+        List<Reservation> expired = expiryWheel.advance(System.nanoTime()).stream()
+                .filter(reservation -> reservations.remove(reservation.id, reservation))
+                .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        stockLedger.evict(expired.stream().map(reservation -> reservation.beerId).collect(Collectors.toSet()));
+        transactionTemplate.executeWithoutResult(status -> {
+            SortedMap<Long, Integer> released = new TreeMap<>();
+            for (Reservation reservation : expired) {
+                if (stockHoldRepository.deleteHold(reservation.id) == 1) {
+                    released.merge(reservation.beerId, reservation.quantity, Integer::sum);
+                }
+            }
+            released.forEach(beerRepository::release);
+        });
+        log.debug("Released {} expired holds", expired.size());
+    }
+
+    public int size() {
+        return reservations.size();
+    }
+
+    private Reservation take(UUID id) throws ReservationNotFoundException {
+        Reservation reservation = reservations.remove(id);
+        if (reservation == null) {
+            throw new ReservationNotFoundException(id);
+        }
+        ExpiryWheel.Timeout<Reservation> timeout = reservation.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return reservation;
+    }
+
+    private Duration holdFor(Duration timeToLive) {
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            return properties.getDefaultTimeToLive();
+        }
+        return timeToLive.compareTo(properties.getMaxTimeToLive()) > 0 ? properties.getMaxTimeToLive() : timeToLive;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Committed {
+
+        private final ReservationDTO reservation;
+        private final Beer beer;
+    }
+
+    private static final class Reservation {
+
+        private final UUID id;
+        private final Long beerId;
+        private final int quantity;
+        private final Instant expiresAt;
+        private volatile ExpiryWheel.Timeout<Reservation> timeout;
+
+        private Reservation(UUID id, Long beerId, int quantity, Instant expiresAt) {
+            this.id = id;
+            this.beerId = beerId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+
+        private ReservationDTO toDTO() {
+            return new ReservationDTO(id, beerId, quantity, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Posts each alert as JSON to {@code beerstock.alerts.webhook-url} without waiting for the answer. Failed deliveries
+ * are logged and dropped: the alert is not raised again until the level changes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "beerstock.alerts", name = "sink", havingValue = "webhook")
+public class WebhookStockAlertSink implements StockAlertSink {
+
+    private final ObjectMapper objectMapper;
+    private final BeerStockProperties.Alerts properties;
+    private final HttpClient httpClient;
+
+    @Autowired
+    public WebhookStockAlertSink(ObjectMapper objectMapper, BeerStockProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties.getAlerts();
+        this.httpClient = HttpClient.newBuilder().connectTimeout(this.properties.getWebhookTimeout()).build();
+    }
+
+    @Override
+    public void publish(StockAlertDTO alert) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(properties.getWebhookUrl())
+                    .timeout(properties.getWebhookTimeout())
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(alert)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.warn("Stock alert for beer {} could not be serialized", alert.getBeerId(), e);
+            return;
+        }
+
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            if (e != null) {
+                log.warn("Stock alert for beer {} could not be delivered to {}", alert.getBeerId(), request.uri(), e);
+            } else if (response.statusCode() >= 300) {
+                log.warn("Stock alert for beer {} was answered with {} by {}", alert.getBeerId(), response.statusCode(), request.uri());
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerMapperBenchmark {
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private Beer beer;
+    private BeerDTO beerDTO;
+
+    @Setup
+    public void setUp() {
+        beer = new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER, 3L, 0);
+        beerDTO = beerMapper.toDTO(beer);
+    }
+
+    @Benchmark
+    public BeerDTO toDTO() {
+        return beerMapper.toDTO(beer);
+    }
+
+    @Benchmark
+    public Beer toModel() {
+        return beerMapper.toModel(beerDTO);
+    }
+}
@@ -0,0 +1,94 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search over 1M beers with and without the composite indexes. The setup fails when the query plan does not match the
+ * expectation, so a result for {@code indexed=true} is only ever reported for an index lookup. Each invocation asks
+ * for another brand and type, since H2 hands back the previous result for an identical query on an unchanged table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BeerSearchBenchmark {
+
+    private static final int MAX = 500;
+    private static final int BRANDS = 100;
+    private static final BeerType[] TYPES = BeerType.values();
+    private static final String BRAND_TYPE_QUANTITY_INDEX = "IDX_BEER_BRAND_TYPE_QUANTITY";
+    private static final String EXPLAIN_SEARCH = "explain select * from beer where brand = 'Brand 42' and type = 'IPA' " +
+            "and quantity <= 100 and quantity <= max * 0.2 order by quantity desc, id limit 21";
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private BeerSearchDTO[] criteria;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, rows, MAX, i -> (int) ((i * 7919L) % (MAX + 1)));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        if (!indexed) {
+            jdbcTemplate.execute("drop index idx_beer_brand_type_quantity");
+            jdbcTemplate.execute("drop index idx_beer_type_quantity");
+        }
+        jdbcTemplate.execute("analyze");
+
+        String plan = jdbcTemplate.queryForObject(EXPLAIN_SEARCH, String.class);
+        if (plan == null || plan.toUpperCase().contains(BRAND_TYPE_QUANTITY_INDEX) != indexed) {
+            throw new IllegalStateException("Unexpected plan for indexed=" + indexed + ": " + plan);
+        }
+
+        beerService = context.getBean(BeerService.class);
+        criteria = new BeerSearchDTO[BRANDS * TYPES.length];
+        for (int i = 0; i < criteria.length; i++) {
+            criteria[i] = BeerSearchDTO.builder()
+                    .brand("Brand " + i % BRANDS)
+                    .type(TYPES[i % TYPES.length])
+                    .maxQuantity(100)
+                    .maxFillRatio(0.2)
+                    .sort("quantity")
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BeerPageDTO search() {
+        next = (next + 1) % criteria.length;
+        return beerService.search(criteria[next]);
+    }
+}
@@ -0,0 +1,84 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import one.digitalinnovation.beerstock.config.WireFormatConfig;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode cost of a beer list as JSON and as Smile. The bytes on the wire of each format, and of gzipped
+ * JSON for reference, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<BeerDTO> beers;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        BeerType[] types = BeerType.values();
+        ObjectMapper objectMapper = "smile".equals(format) ? new ObjectMapper(WireFormatConfig.smileFactory()) : new ObjectMapper();
+        CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, BeerDTO.class);
+        writer = objectMapper.writerFor(listType);
+        reader = objectMapper.readerFor(listType);
+        beers = IntStream.range(0, size)
+                .mapToObj(i -> new BeerDTO((long) i, "Beer " + i, "Brand " + (i % 100), 500, i % 100, types[i % types.length], 0L))
+                .collect(Collectors.toList());
+        encoded = writer.writeValueAsBytes(beers);
+        System.out.printf("%n%s, %d beers: %d bytes, %d gzipped%n", format, size, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return writer.writeValueAsBytes(beers);
+    }
+
+    @Benchmark
+    public List<BeerDTO> deserializeList() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
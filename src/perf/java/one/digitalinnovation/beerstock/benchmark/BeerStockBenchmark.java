@@ -0,0 +1,62 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Increment and decrement through {@link BeerService} on H2. All threads hit the same row, so the contended
+ * variant measures how the adjustment path behaves under row lock contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeerStockBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private Long beerId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        beerId = BenchmarkContext.seed(context, 1, 1_000_000, 500_000).get(0);
+        beerService = context.getBean(BeerService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BeerDTO incrementAndDecrement() throws Exception {
+        beerService.increment(beerId, 1);
+        return beerService.decrement(beerId, 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BeerDTO incrementAndDecrementContended() throws Exception {
+        beerService.increment(beerId, 1);
+        return beerService.decrement(beerId, 1);
+    }
+}
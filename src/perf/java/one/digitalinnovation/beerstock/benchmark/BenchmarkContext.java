@@ -0,0 +1,68 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.service.BeerNameFilter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Boots the application on an in-memory H2 database for the benchmarks and the load test.
+ */
+public final class BenchmarkContext {
+
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        // the restarter only honours the system property and would otherwise re-run main() without its arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(BeerstockApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime(),
+                        "logging.level.root=WARN")
+                .properties(properties)
+                // measure what the service sustains, not what admission control lets through; passed as an argument
+                // because default properties lose to the enabled=true in application.properties
+                .run("--beerstock.admission.enabled=false");
+    }
+
+    /**
+     * Inserts beers named {@code Beer 0..rows-1} with JDBC batches, bypassing the service on purpose, then rebuilds
+     * the name filter so that the seeded names can be looked up.
+     *
+     * @return the ids given to the seeded beers, in name order; the id sequence allocates in steps, so they are not
+     * {@code 1..rows}
+     */
+    public static List<Long> seed(ConfigurableApplicationContext context, int rows, int max, int quantity) {
+        return seed(context, rows, max, i -> quantity);
+    }
+
+    /**
+     * As {@link #seed(ConfigurableApplicationContext, int, int, int)}, with the quantity of row {@code i} given by
+     * {@code quantityOf}.
+     */
+    public static List<Long> seed(ConfigurableApplicationContext context, int rows, int max, IntUnaryOperator quantityOf) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BeerType[] types = BeerType.values();
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{"Beer " + i, "Brand " + (i % 100), max, quantityOf.applyAsInt(i), types[i % types.length].name()});
+            if (batch.size() == SEED_BATCH_SIZE || i == rows - 1) {
+                jdbcTemplate.batchUpdate("insert into beer (id, name, brand, max, quantity, type, version, reserved) values (next value for beer_seq, ?, ?, ?, ?, ?, 0, 0)", batch);
+                batch.clear();
+            }
+        }
+        context.getBean(BeerNameFilter.class).rebuild();
+        return jdbcTemplate.queryForList("select id from beer where name like 'Beer %' order by id", Long.class);
+    }
+}
@@ -0,0 +1,243 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import one.digitalinnovation.beerstock.benchmark.BenchmarkContext;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load generator for {@code /api/v1/beers}.
+ * <p>
+ * Boots the application on a random port with H2, seeds beers, then drives a weighted mix of requests either
+ * closed-loop at a fixed concurrency or open-loop at a fixed arrival rate. In open-loop runs latency is measured from
+ * the time a request was due, so a stalled server is not hidden by coordinated omission. Latencies are recorded in
+ * HdrHistograms and written as a JSON report; the process exits with 1 when a release gate is not met.
+ * <pre>
+ * mvn -Pperf test-compile exec:exec@load-test -Dloadtest.args="--beers=10000 --concurrency=64 --duration=60s"
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final String BEERS_PATH = "/api/v1/beers";
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SEEDED_MAX = 500;
+    private static final int SEEDED_QUANTITY = 250;
+
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final List<Long> seededIds;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Operation[] wheel;
+
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class);
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong createdNames = new AtomicLong();
+
+    public LoadTest(LoadTestOptions options, String baseUrl, List<Long> seededIds) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.seededIds = seededIds;
+        List<Operation> weighted = new ArrayList<>();
+        options.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        this.wheel = weighted.toArray(new Operation[0]);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(HIGHEST_LATENCY_MICROS, 3));
+            errors.put(operation, new LongAdder());
+            rejected.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        String[] properties = options.getProfiles().isEmpty()
+                ? new String[0]
+                : new String[]{"spring.profiles.active=" + options.getProfiles()};
+
+        ConfigurableApplicationContext context = BenchmarkContext.start(properties);
+        LoadTestReport report;
+        try {
+            List<Long> seededIds = BenchmarkContext.seed(context, options.getBeers(), SEEDED_MAX, SEEDED_QUANTITY);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            report = new LoadTest(options, "http://localhost:" + port, seededIds).run();
+        } finally {
+            context.close();
+        }
+
+        File reportFile = new File(options.getReport());
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportFile, report);
+        System.out.printf("Load test %s: %.0f req/s, p99 %.2f ms, error rate %.4f, report in %s%n",
+                report.isPassed() ? "passed" : "FAILED", report.getTotal().getThroughput(), report.getTotal().getP99(),
+                report.getTotal().getErrorRate(), reportFile);
+        System.exit(report.isPassed() ? 0 : 1);
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        drive(options.getWarmup());
+        latencies.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        rejected.values().forEach(LongAdder::reset);
+
+        long start = System.nanoTime();
+        drive(options.getDuration());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        LoadTestReport report = new LoadTestReport();
+        report.setOptions(options);
+        report.setSeconds(seconds);
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        long totalRejected = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation).getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += errors.get(operation).sum();
+            totalRejected += rejected.get(operation).sum();
+            report.getOperations().put(operation, LoadTestReport.Stats.of(histogram, errors.get(operation).sum(), rejected.get(operation).sum(), seconds));
+        }
+        report.setTotal(LoadTestReport.Stats.of(total, totalErrors, totalRejected, seconds));
+        report.setPassed(meetsGates(report.getTotal()));
+        return report;
+    }
+
+    private boolean meetsGates(LoadTestReport.Stats total) {
+        boolean errorRateMet = options.getMaxErrorRate() < 0 || total.getErrorRate() <= options.getMaxErrorRate();
+        boolean p99Met = options.getMaxP99Millis() < 0 || total.getP99() <= options.getMaxP99Millis();
+        return errorRateMet && p99Met;
+    }
+
+    private void drive(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(options.getConcurrency());
+        if (options.getRate() > 0) {
+            long interval = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+            for (long due = System.nanoTime(); due < deadline; due += interval) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long dueAt = due;
+                workers.execute(() -> execute(nextOperation(), dueAt));
+            }
+        } else {
+            for (int i = 0; i < options.getConcurrency(); i++) {
+                workers.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        execute(nextOperation(), System.nanoTime());
+                    }
+                });
+            }
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    private Operation nextOperation() {
+        return wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+    }
+
+    private void execute(Operation operation, long startNanos) {
+        Long idToDelete = null;
+        if (operation == Operation.DELETE) {
+            idToDelete = createdIds.poll();
+            if (idToDelete == null) {
+                operation = Operation.CREATE;
+            }
+        }
+
+        int status;
+        try {
+            HttpResponse<String> response = client.send(request(operation, idToDelete), HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            if (operation == Operation.CREATE && status == 201) {
+                createdIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+            }
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        latencies.get(operation).recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+        if (status < 0 || status >= 500) {
+            errors.get(operation).increment();
+        } else if (status >= 400) {
+            rejected.get(operation).increment();
+        }
+    }
+
+    private HttpRequest request(Operation operation, Long idToDelete) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long seededId = seededIds.get(random.nextInt(seededIds.size()));
+        switch (operation) {
+            case LIST:
+                return get(BEERS_PATH + "?page=" + random.nextInt(Math.max(1, options.getBeers() / 20)) + "&size=20");
+            case LOOKUP:
+                String name = URLEncoder.encode("Beer " + random.nextInt(options.getBeers()), StandardCharsets.UTF_8).replace("+", "%20");
+                return get(BEERS_PATH + "/" + name);
+            case CREATE:
+                String beer = String.format("{\"name\":\"Load %d\",\"brand\":\"Load\",\"max\":%d,\"quantity\":0,\"type\":\"LAGER\"}",
+                        createdNames.incrementAndGet(), SEEDED_MAX);
+                return json(BEERS_PATH).POST(HttpRequest.BodyPublishers.ofString(beer)).build();
+            case DELETE:
+                return HttpRequest.newBuilder(URI.create(baseUrl + BEERS_PATH + "/" + idToDelete)).DELETE().build();
+            case INCREMENT:
+                return json(BEERS_PATH + "/" + seededId + "/increment").method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}")).build();
+            case DECREMENT:
+                return json(BEERS_PATH + "/" + seededId + "/decrement").method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}")).build();
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Content-Type", "application/json");
+    }
+}
@@ -0,0 +1,91 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ */
+@Data
+public class LoadTestOptions {
+
+    private static final String DEFAULT_MIX = "list:5,lookup:60,create:5,delete:5,increment:13,decrement:12";
+
+    private int beers = 1_000;
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration duration = Duration.ofSeconds(30);
+    private int concurrency = 32;
+
+    /**
+     * Requests per second for an open-loop run; 0 runs closed-loop, each worker sending as fast as it is answered.
+     */
+    private int rate = 0;
+
+    private Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+    private String profiles = "";
+    private String report = "target/loadtest-report.json";
+
+    /**
+     * Release gates: the run fails when either is exceeded. Negative values disable them.
+     */
+    private double maxErrorRate = 0.01;
+    private double maxP99Millis = -1;
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "beers":
+                    options.setBeers(Integer.parseInt(value));
+                    break;
+                case "warmup":
+                    options.setWarmup(Duration.parse("PT" + value));
+                    break;
+                case "duration":
+                    options.setDuration(Duration.parse("PT" + value));
+                    break;
+                case "concurrency":
+                    options.setConcurrency(Integer.parseInt(value));
+                    break;
+                case "rate":
+                    options.setRate(Integer.parseInt(value));
+                    break;
+                case "mix":
+                    options.setMix(parseMix(value));
+                    break;
+                case "profiles":
+                    options.setProfiles(value);
+                    break;
+                case "report":
+                    options.setReport(value);
+                    break;
+                case "max-error-rate":
+                    options.setMaxErrorRate(Double.parseDouble(value));
+                    break;
+                case "max-p99-ms":
+                    options.setMaxP99Millis(Double.parseDouble(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split(":");
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+}
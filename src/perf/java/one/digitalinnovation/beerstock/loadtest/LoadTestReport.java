@@ -0,0 +1,50 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+import lombok.Data;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Machine-readable outcome of a run; latencies are in milliseconds.
+ */
+@Data
+public class LoadTestReport {
+
+    private LoadTestOptions options;
+    private double seconds;
+    private Stats total;
+    private Map<Operation, Stats> operations = new LinkedHashMap<>();
+    private boolean passed;
+
+    @Data
+    public static class Stats {
+
+        private long requests;
+        private long errors;
+        private long rejected;
+        private double throughput;
+        private double errorRate;
+        private double mean;
+        private double p50;
+        private double p99;
+        private double p999;
+        private double max;
+
+        static Stats of(Histogram latencies, long errors, long rejected, double seconds) {
+            Stats stats = new Stats();
+            stats.setRequests(latencies.getTotalCount());
+            stats.setErrors(errors);
+            stats.setRejected(rejected);
+            stats.setThroughput(latencies.getTotalCount() / seconds);
+            stats.setErrorRate(latencies.getTotalCount() == 0 ? 0 : (double) errors / latencies.getTotalCount());
+            stats.setMean(latencies.getMean() / 1_000.0);
+            stats.setP50(latencies.getValueAtPercentile(50) / 1_000.0);
+            stats.setP99(latencies.getValueAtPercentile(99) / 1_000.0);
+            stats.setP999(latencies.getValueAtPercentile(99.9) / 1_000.0);
+            stats.setMax(latencies.getMaxValue() / 1_000.0);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package one.digitalinnovation.beerstock.loadtest;
+
+public enum Operation {
+
+    LIST,
+    LOOKUP,
+    CREATE,
+    DELETE,
+    INCREMENT,
+    DECREMENT
+}
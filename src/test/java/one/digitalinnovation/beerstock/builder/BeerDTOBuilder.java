@@ -30,6 +30,7 @@ public class BeerDTOBuilder {
                 brand,
                 max,
                 quantity,
-                type);
+                type,
+                null);
     }
 }
@@ -0,0 +1,98 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.exceptions.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionControlTest {
+
+    @Test
+    void whenBurstIsSpentThenBucketAsksToWaitAndOtherKeysAreUnaffected() {
+        TokenBuckets buckets = new TokenBuckets(1, 3, 100);
+
+        assertThat(buckets.tryAcquire("integration-a"), is(0L));
+        assertThat(buckets.tryAcquire("integration-a"), is(0L));
+        assertThat(buckets.tryAcquire("integration-a"), is(0L));
+        long wait = buckets.tryAcquire("integration-a");
+
+        assertThat(wait, allOf(greaterThan(0L), lessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1))));
+        assertThat(buckets.tryAcquire("integration-b"), is(0L));
+    }
+
+    @Test
+    void whenLimitIsReachedThenRequestsAreRejectedUntilOneCompletes() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TimeUnit.SECONDS.toNanos(1), 0.5);
+
+        assertThat(limit.tryAcquire(), is(true));
+        assertThat(limit.tryAcquire(), is(true));
+        assertThat(limit.tryAcquire(), is(false));
+
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), AdaptiveConcurrencyLimit.Outcome.SUCCEEDED);
+        assertThat(limit.getLimit(), is(3));
+        assertThat(limit.tryAcquire(), is(true));
+    }
+
+    @Test
+    void whenRequestsAreRejectedForTheClientThenLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TimeUnit.SECONDS.toNanos(1), 0.5);
+
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), AdaptiveConcurrencyLimit.Outcome.of(404, null));
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), AdaptiveConcurrencyLimit.Outcome.of(409, null));
+
+        assertThat(limit.getLimit(), is(2));
+        assertThat(AdaptiveConcurrencyLimit.Outcome.of(200, null), is(AdaptiveConcurrencyLimit.Outcome.SUCCEEDED));
+        assertThat(AdaptiveConcurrencyLimit.Outcome.of(503, null), is(AdaptiveConcurrencyLimit.Outcome.FAILED));
+    }
+
+    @Test
+    void whenRequestsAreSlowOrFailThenLimitBacksOffToItsMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 2, 10, TimeUnit.MILLISECONDS.toNanos(100), 0.5);
+
+        limit.tryAcquire();
+        limit.release(TimeUnit.SECONDS.toNanos(1), AdaptiveConcurrencyLimit.Outcome.SUCCEEDED);
+        assertThat(limit.getLimit(), is(4));
+
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), AdaptiveConcurrencyLimit.Outcome.FAILED);
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), AdaptiveConcurrencyLimit.Outcome.FAILED);
+        assertThat(limit.getLimit(), is(2));
+        assertThat(limit.getInFlight(), is(0));
+    }
+
+    @Test
+    void whenUnknownClientRotatesItsHeaderThenItStillSharesTheBucketOfItsAddress() throws Exception {
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getAdmission().setClientRate(0.001);
+        properties.getAdmission().setClientBurst(2);
+        properties.getAdmission().setKnownClients(Set.of("integration-a"));
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(properties, new SimpleMeterRegistry());
+
+        write(interceptor, "rotated-1");
+        write(interceptor, "rotated-2");
+        assertThrows(RateLimitExceededException.class, () -> write(interceptor, "rotated-3"));
+
+        write(interceptor, "integration-a");
+        write(interceptor, "integration-a");
+        assertThrows(RateLimitExceededException.class, () -> write(interceptor, "integration-a"));
+    }
+
+    private void write(AdmissionControlInterceptor interceptor, String clientId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/beers");
+        request.addHeader("X-Client-ID", clientId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+    }
+}
@@ -0,0 +1,41 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsAspectTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final String PROMETHEUS_URL_PATH = "/actuator/prometheus";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void whenRequestsAreServedThenHotPathMetricsAreScraped() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH)).andExpect(status().isOk());
+        mockMvc.perform(get(BEER_API_URL_PATH + "/Unknown")).andExpect(status().isNotFound());
+
+        mockMvc.perform(get(PROMETHEUS_URL_PATH))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("beerstock_service_seconds_count{exception=\"none\",method=\"findAll\",}")))
+                .andExpect(content().string(containsString("beerstock_service_seconds_count{exception=\"BeerNotFoundException\",method=\"findByName\",}")))
+                .andExpect(content().string(containsString("beerstock_repository_seconds_count{exception=\"none\",method=\"findAll\",}")))
+                .andExpect(content().string(containsString("beerstock_exceptions_total{exception=\"BeerNotFoundException\",method=\"findByName\",}")))
+                .andExpect(content().string(containsString("beerstock_mapping_seconds")))
+                .andExpect(content().string(containsString("hikaricp_connections")))
+                .andExpect(content().string(containsString("hibernate_")));
+    }
+}
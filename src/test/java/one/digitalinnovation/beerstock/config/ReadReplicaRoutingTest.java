@@ -0,0 +1,87 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.servlet.http.Cookie;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = {
+        "beerstock.replicas.enabled=true",
+        "beerstock.replicas.data-sources[0].url=jdbc:h2:mem:replica0;DB_CLOSE_DELAY=-1"
+})
+class ReadReplicaRoutingTest {
+
+    private static final String REPLICA = "REPLICA0";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Test
+    void whenTransactionIsReadOnlyThenReplicaIsUsed() {
+        assertThat(databaseIn(readOnlyTransactionTemplate), is(REPLICA));
+        assertThat(databaseIn(transactionTemplate), not(REPLICA));
+        assertThat(jdbcTemplate.queryForObject("select database()", String.class), not(REPLICA));
+    }
+
+    @Test
+    void whenPrimaryIsRequiredThenReadOnlyTransactionStaysOnPrimary() {
+        List<String> databases = new ArrayList<>();
+
+        ReplicaRouting.onPrimary(() -> databases.add(databaseIn(readOnlyTransactionTemplate)));
+
+        assertThat(databases, contains(not(REPLICA)));
+        assertThat(ReplicaRouting.isPrimaryRequired(), is(false));
+    }
+
+    @Test
+    void whenClientWritesThenItsNextReadsStayOnPrimary() throws Exception {
+        List<Boolean> primaryRequired = new ArrayList<>();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+
+        readYourWritesFilter.doFilter(new MockHttpServletRequest("PATCH", "/api/v1/beers/1/increment"), writeResponse,
+                (request, response) -> primaryRequired.add(ReplicaRouting.isPrimaryRequired()));
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE);
+        MockHttpServletRequest stickyRead = new MockHttpServletRequest("GET", "/api/v1/beers/name/Brahma");
+        stickyRead.setCookies(cookie);
+        readYourWritesFilter.doFilter(stickyRead, new MockHttpServletResponse(),
+                (request, response) -> primaryRequired.add(ReplicaRouting.isPrimaryRequired()));
+        readYourWritesFilter.doFilter(new MockHttpServletRequest("GET", "/api/v1/beers/name/Brahma"), new MockHttpServletResponse(),
+                (request, response) -> primaryRequired.add(ReplicaRouting.isPrimaryRequired()));
+
+        assertThat(cookie, notNullValue());
+        assertThat(primaryRequired, contains(true, true, false));
+    }
+
+    private String databaseIn(TransactionTemplate template) {
+        return template.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+    }
+}
@@ -1,34 +1,61 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.config.ClientResolver;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentResultDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementPageDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationResultDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BulkMode;
+import one.digitalinnovation.beerstock.enums.StockOperationStatus;
 import one.digitalinnovation.beerstock.exceptions.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exceptions.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockExceededException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.service.BeerCatalogVersion;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.StockChangeStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,14 +63,28 @@ public class BeerControllerTest {
     private static final String BEER_API_URL_PATH = "/api/v1/beers";
     private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
     private static final String BEER_API_SUBPATH_DECREMENT_URL = "/decrement";
+    private static final String BEER_API_SUBPATH_STOCK_URL = "/stock";
     private static final long VALID_BEER_ID = 1L;
     private static final long INVALID_BEER_ID = 2L;
+    private static final String CLIENT = "address:127.0.0.1";
 
     private MockMvc mockMvc;
 
     @Mock
     BeerService beerService;
 
+    @Mock
+    StockChangeStream stockChangeStream;
+
+    @Mock
+    BeerCatalogVersion beerCatalogVersion;
+
+    @Spy
+    ClientResolver clientResolver = new ClientResolver(new BeerStockProperties());
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     BeerController beerController;
 
@@ -61,7 +102,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         // when
-        when(beerService.createBeer(beerDTO)).thenReturn(beerDTO);
+        when(beerService.createBeer(beerDTO, CLIENT, null)).thenReturn(beerDTO);
 
         mockMvc.perform(post(BEER_API_URL_PATH)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -102,6 +143,29 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$.type", is(beerDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETIsCalledWithCurrentETagThenNotModifiedStatusIsReturned() throws Exception {
+        //given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setVersion(3L);
+
+        // when
+        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+        // then
+        String eTag = mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        beerDTO.setQuantity(beerDTO.getQuantity() + 1);
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void whenGETIsCalledWithoutRegisteredNameThenNotFoudStatusIsReturned() throws Exception {
         //given
@@ -133,6 +197,38 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$[0].type", is(beerDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETListIsCalledWithCurrentCatalogETagThenListIsNotRead() throws Exception {
+        //given
+        BeerCatalogVersion.Tag tag = new BeerCatalogVersion.Tag("W/\"1-1000\"", 1000L);
+
+        // when
+        when(beerCatalogVersion.current()).thenReturn(Optional.of(tag));
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, tag.getETag()))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tag.getETag()));
+        verify(beerService, times(1)).findAll();
+    }
+
+    @Test
+    void whenCatalogHasNoVersionThenListIsAlwaysRead() throws Exception {
+        // when
+        when(beerCatalogVersion.current()).thenReturn(Optional.empty());
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        verify(beerService, times(1)).findAll();
+    }
+
     @Test
     void whenGETListWithoutBeersIsCalledThenOkStatusIsReturned() throws Exception {
         //given
@@ -147,6 +243,155 @@ public class BeerControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGETPageIsCalledThenOkStatusIsReturned() throws Exception {
+        //given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerPageDTO beerPageDTO = BeerPageDTO.builder().content(List.of(beerDTO)).page(0).size(1).hasNext(true).nextCursor(beerDTO.getId()).build();
+
+        // when
+        when(beerService.findPage(0, 1)).thenReturn(beerPageDTO);
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH).param("page", "0").param("size", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    @Test
+    void whenGETPageAfterCursorIsCalledThenOkStatusIsReturned() throws Exception {
+        //given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerPageDTO beerPageDTO = BeerPageDTO.builder().content(List.of(beerDTO)).size(20).hasNext(false).build();
+
+        // when
+        when(beerService.findAfter(VALID_BEER_ID, 20)).thenReturn(beerPageDTO);
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH).param("after", String.valueOf(VALID_BEER_ID))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    @Test
+    void whenGETPageIsCalledWithBothOffsetAndCursorThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH).param("page", "0").param("after", String.valueOf(VALID_BEER_ID))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(beerService);
+    }
+
+    @Test
+    void whenGETIsCalledWithANameLikeAFixedPathThenTheBeerIsLookedUpByName() throws Exception {
+        //given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("search").build().toBeerDTO();
+
+        // when
+        when(beerService.findByName("search")).thenReturn(beerDTO);
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH + "/search")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("search")));
+    }
+
+    @Test
+    void whenGETSearchIsCalledThenFiltersAreBoundAndOkStatusIsReturned() throws Exception {
+        //given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerSearchDTO beerSearchDTO = BeerSearchDTO.builder()
+                .brand(beerDTO.getBrand())
+                .type(beerDTO.getType())
+                .maxFillRatio(0.2)
+                .sort("quantity")
+                .build();
+        BeerPageDTO beerPageDTO = BeerPageDTO.builder().content(List.of(beerDTO)).page(0).size(20).hasNext(false).build();
+
+        // when
+        when(beerService.search(beerSearchDTO)).thenReturn(beerPageDTO);
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH + "/catalog/search")
+                .param("brand", beerDTO.getBrand())
+                .param("type", beerDTO.getType().name())
+                .param("maxFillRatio", "0.2")
+                .param("sort", "quantity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    @Test
+    void whenGETSearchIsCalledWithUnknownSortThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/catalog/search").param("sort", "version"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenGETListIsCalledAcceptingNdjsonThenBeersAreStreamedOnePerLine() throws Exception {
+        //given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        doAnswer(invocation -> {
+            Consumer<BeerDTO> consumer = invocation.getArgument(0);
+            consumer.accept(beerDTO);
+            consumer.accept(beerDTO);
+            return null;
+        }).when(beerService).streamAll(any(Consumer.class));
+
+        // then
+        MvcResult mvcResult = mockMvc.perform(get(BEER_API_URL_PATH).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = asJsonString(beerDTO);
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(line + "\n" + line));
+    }
+
+    @Test
+    void whenGETStockEventsIsCalledWithLastEventIdThenSubscriptionResumesFromIt() throws Exception {
+        // when
+        when(stockChangeStream.subscribe(42L)).thenReturn(new SseEmitter());
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL + "/events")
+                .header("Last-Event-ID", "42")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(stockChangeStream, times(1)).subscribe(42L);
+    }
+
+    @Test
+    void whenGETMovementsIsCalledWithTimeRangeThenHistoryPageIsReturned() throws Exception {
+        //given
+        Instant from = Instant.parse("2026-01-01T00:00:00Z");
+        Instant to = Instant.parse("2026-02-01T00:00:00Z");
+        StockMovementDTO movement = new StockMovementDTO(7L, VALID_BEER_ID, -3, 7, from.plusSeconds(60), "req-1");
+        StockMovementPageDTO page = StockMovementPageDTO.builder().content(List.of(movement)).size(20).hasNext(false).build();
+
+        // when
+        when(beerService.findMovements(VALID_BEER_ID, from, to, null, 20)).thenReturn(page);
+
+        // then
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/movements")
+                .param("from", from.toString())
+                .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].delta", is(-3)))
+                .andExpect(jsonPath("$.content[0].requestId", is("req-1")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
     @Test
     void whenDELETEIsCalledWithValidIdThenNoContentStatusIsReturned() throws Exception {
         //given
@@ -185,7 +430,7 @@ public class BeerControllerTest {
         expectedBeerDTO.setQuantity(expectedBeerDTO.getQuantity() + quantityDTO.getQuantity());
 
         // when
-        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(expectedBeerDTO);
+        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity(), CLIENT, null)).thenReturn(expectedBeerDTO);
 
         // then
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
@@ -210,7 +455,7 @@ public class BeerControllerTest {
         expectedBeerDTO.setQuantity(expectedBeerDTO.getQuantity() + quantityDTO.getQuantity());
 
         // when
-        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
+        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity(), CLIENT, null)).thenThrow(BeerStockExceededException.class);
 
         // then
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
@@ -231,7 +476,7 @@ public class BeerControllerTest {
         expectedBeerDTO.setQuantity(expectedBeerDTO.getQuantity() + quantityDTO.getQuantity());
 
         // when
-        when(beerService.increment(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
+        when(beerService.increment(INVALID_BEER_ID, quantityDTO.getQuantity(), CLIENT, null)).thenThrow(BeerNotFoundException.class);
 
         // then
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
@@ -250,7 +495,7 @@ public class BeerControllerTest {
         expectedBeerDTO.setQuantity(expectedQuantityAfterDecremented);
 
         // when
-        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(expectedBeerDTO);
+        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity(), CLIENT, null)).thenReturn(expectedBeerDTO);
         // then
         mockMvc.perform(
                 patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
@@ -269,7 +514,7 @@ public class BeerControllerTest {
         QuantityDTO quantityDTO = QuantityDTO.builder().quantity(70).build();
 
         //when
-        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockLessThanZeroException.class);
+        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity(), CLIENT, null)).thenThrow(BeerStockLessThanZeroException.class);
 
         // then
         mockMvc.perform(
@@ -285,7 +530,7 @@ public class BeerControllerTest {
         QuantityDTO quantityDTO = QuantityDTO.builder().quantity(2).build();
 
         //when
-        when(beerService.decrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
+        when(beerService.decrement(INVALID_BEER_ID, quantityDTO.getQuantity(), CLIENT, null)).thenThrow(BeerNotFoundException.class);
 
         // then
         mockMvc.perform(
@@ -294,4 +539,40 @@ public class BeerControllerTest {
                         .content(asJsonString(quantityDTO)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void whenPATCHIsCalledToAdjustStockInBulkThenOkStatusIsReturned() throws Exception {
+        // given
+        StockOperationDTO operation = StockOperationDTO.builder().id(VALID_BEER_ID).delta(5).build();
+        BulkStockAdjustmentDTO bulkStockAdjustmentDTO = BulkStockAdjustmentDTO.builder()
+                .mode(BulkMode.BEST_EFFORT)
+                .operations(List.of(operation))
+                .build();
+        StockOperationResultDTO operationResult = new StockOperationResultDTO(VALID_BEER_ID, 5, StockOperationStatus.APPLIED, 15);
+
+        // when
+        when(beerService.adjustStock(bulkStockAdjustmentDTO))
+                .thenReturn(new BulkStockAdjustmentResultDTO(BulkMode.BEST_EFFORT, 1, List.of(operationResult)));
+
+        // then
+        mockMvc.perform(patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(bulkStockAdjustmentDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is(StockOperationStatus.APPLIED.toString())))
+                .andExpect(jsonPath("$.results[0].quantity", is(15)));
+    }
+
+    @Test
+    void whenPATCHIsCalledToAdjustStockInBulkWithoutOperationsThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        BulkStockAdjustmentDTO bulkStockAdjustmentDTO = BulkStockAdjustmentDTO.builder().operations(List.of()).build();
+
+        // then
+        mockMvc.perform(patch(BEER_API_URL_PATH + BEER_API_SUBPATH_STOCK_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(bulkStockAdjustmentDTO)))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,62 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+class BeerSearchRepositoryTest {
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @BeforeEach
+    void setUp() {
+        beerRepository.saveAll(List.of(
+                new Beer(null, "Colorado IPA", "Colorado", 100, 10, BeerType.IPA, null, 0),
+                new Beer(null, "Colorado Stout", "Colorado", 100, 15, BeerType.STOUT, null, 0),
+                new Beer(null, "Colorado Double IPA", "Colorado", 50, 40, BeerType.IPA, null, 0),
+                new Beer(null, "Baden IPA", "Baden", 100, 5, BeerType.IPA, null, 0)));
+    }
+
+    @Test
+    void whenSearchingByBrandTypeAndFillRatioThenOnlyMatchingBeersAreReturned() {
+        BeerSearchDTO criteria = BeerSearchDTO.builder().brand("Colorado").type(BeerType.IPA).maxFillRatio(0.2).build();
+
+        Slice<Beer> beers = beerRepository.search(BeerSpecifications.matching(criteria), PageRequest.of(0, 20));
+
+        assertThat(names(beers), contains("Colorado IPA"));
+        assertThat(beers.hasNext(), is(false));
+    }
+
+    @Test
+    void whenSearchingByQuantityRangeThenBeersAreSortedAndSliced() {
+        BeerSearchDTO criteria = BeerSearchDTO.builder().minQuantity(5).maxQuantity(15).build();
+
+        Slice<Beer> firstPage = beerRepository.search(BeerSpecifications.matching(criteria), PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "quantity")));
+        Slice<Beer> lastPage = beerRepository.search(BeerSpecifications.matching(criteria), PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "quantity")));
+
+        assertThat(names(firstPage), contains("Colorado Stout", "Colorado IPA"));
+        assertThat(firstPage.hasNext(), is(true));
+        assertThat(names(lastPage), contains("Baden IPA"));
+        assertThat(lastPage.hasNext(), is(false));
+    }
+
+    private List<String> names(Slice<Beer> beers) {
+        return beers.getContent().stream().map(Beer::getName).collect(Collectors.toList());
+    }
+}
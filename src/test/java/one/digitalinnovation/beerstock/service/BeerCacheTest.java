@@ -0,0 +1,93 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class BeerCacheTest {
+
+    private BeerCache beerCache;
+
+    @BeforeEach
+    void setUp() {
+        beerCache = new BeerCache(new BeerStockProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whenBeerIsPutThenItIsFoundByNameAndId() {
+        Beer beer = beer(1L, 10, 0L);
+
+        beerCache.put(beer);
+
+        assertThat(beerCache.findByName(beer.getName()).orElseThrow().getQuantity(), is(10));
+        assertThat(beerCache.findById(beer.getId()).orElseThrow().getQuantity(), is(10));
+    }
+
+    @Test
+    void whenOlderVersionIsPutThenNewerOneIsKept() {
+        beerCache.put(beer(1L, 12, 2L));
+        beerCache.put(beer(1L, 11, 1L));
+
+        assertThat(beerCache.findById(1L).orElseThrow().getQuantity(), is(12));
+    }
+
+    @Test
+    void whenBeerIsEvictedThenStaleReadersCannotPutItBack() {
+        Beer beer = beer(1L, 10, 3L);
+
+        beerCache.evict(beer);
+        beerCache.put(beer);
+
+        assertThat(beerCache.findByName(beer.getName()), is(equalTo(Optional.empty())));
+        assertThat(beerCache.findById(beer.getId()), is(equalTo(Optional.empty())));
+    }
+
+    @Test
+    void whenDeletedNameIsCreatedAgainThenNewBeerIsCached() {
+        Beer deletedBeer = beer(1L, 10, 3L);
+        Beer createdBeer = beer(2L, 5, 0L);
+
+        beerCache.evict(deletedBeer);
+        beerCache.putCreated(createdBeer);
+        beerCache.put(deletedBeer);
+
+        assertThat(beerCache.findByName(createdBeer.getName()).orElseThrow().getId(), is(2L));
+    }
+
+    @Test
+    void whenCachedBeerIsChangedByCallerThenCacheIsNotAffected() {
+        beerCache.put(beer(1L, 10, 0L));
+
+        BeerDTO beerDTO = beerCache.findById(1L).orElseThrow();
+        beerDTO.setQuantity(0);
+
+        assertThat(beerCache.findById(1L).orElseThrow().getQuantity(), is(10));
+    }
+
+    @Test
+    void whenCacheIsDisabledThenNothingIsServed() {
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getCache().setEnabled(false);
+        beerCache = new BeerCache(properties, new SimpleMeterRegistry());
+
+        beerCache.put(beer(1L, 10, 0L));
+
+        assertThat(beerCache.findById(1L).isPresent(), is(false));
+    }
+
+    private Beer beer(Long id, int quantity, Long version) {
+        Beer beer = BeerMapper.INSTANCE.toModel(BeerDTOBuilder.builder().id(id).quantity(quantity).build().toBeerDTO());
+        beer.setVersion(version);
+        return beer;
+    }
+}
@@ -0,0 +1,68 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exceptions.BeerStockExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class BeerCatalogVersionTest {
+
+    @Autowired
+    private BeerCatalogVersion beerCatalogVersion;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenStockIsAdjustedThenTheSharedVersionMovesWithIt() throws Exception {
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+        String created = eTag();
+
+        beerService.increment(beerDTO.getId(), 5);
+        String incremented = eTag();
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(beerDTO.getId(), 1000));
+
+        assertThat(incremented, is(not(created)));
+        assertThat(eTag(), is(incremented));
+    }
+
+    @Test
+    void whenTheWriteIsRolledBackThenTheVersionIsToo() {
+        String before = eTag();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            beerCatalogVersion.bump();
+            status.setRollbackOnly();
+        });
+
+        assertThat(eTag(), is(before));
+        assertThrows(IllegalTransactionStateException.class, () -> beerCatalogVersion.bump());
+    }
+
+    private String eTag() {
+        return beerCatalogVersion.current().orElseThrow().getETag();
+    }
+}
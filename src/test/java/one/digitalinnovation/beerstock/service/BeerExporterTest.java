@@ -0,0 +1,71 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerCatalogFormat;
+import one.digitalinnovation.beerstock.exceptions.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = "beerstock.catalog-export.fetch-size=1")
+class BeerExporterTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenExportedAsCsvThenEveryBeerIsWrittenInIdOrder() throws IOException, BeerAlreadyRegisteredException {
+        BeerDTO first = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Pilsen").build().toBeerDTO());
+        BeerDTO second = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Stout, \"Extra\"").brand("Guinness").build().toBeerDTO());
+
+        List<String> lines = export(BeerCatalogFormat.CSV).lines().collect(Collectors.toList());
+
+        assertThat(lines, contains(
+                "id,name,brand,max,quantity,type",
+                first.getId() + ",Pilsen,Ambev,50,10,LAGER",
+                second.getId() + ",\"Stout, \"\"Extra\"\"\",Guinness,50,10,LAGER"));
+    }
+
+    @Test
+    void whenExportedAsNdjsonThenEachLineIsABeer() throws IOException, BeerAlreadyRegisteredException {
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Weiss").build().toBeerDTO());
+
+        List<String> lines = export(BeerCatalogFormat.NDJSON).lines().collect(Collectors.toList());
+
+        assertThat(lines, hasSize(1));
+        BeerDTO exported = objectMapper.readValue(lines.get(0), BeerDTO.class);
+        assertThat(exported.getId(), is(beerDTO.getId()));
+        assertThat(exported.getName(), is("Weiss"));
+        assertThat(exported.getQuantity(), is(10));
+    }
+
+    private String export(BeerCatalogFormat format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        beerService.exportBeers(outputStream, format);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
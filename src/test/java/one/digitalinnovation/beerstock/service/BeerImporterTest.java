@@ -0,0 +1,83 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportProgressDTO;
+import one.digitalinnovation.beerstock.enums.BeerCatalogFormat;
+import one.digitalinnovation.beerstock.exceptions.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exceptions.BeerNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = "beerstock.catalog-import.chunk-size=2")
+class BeerImporterTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenCsvIsImportedThenValidRowsAreInsertedAndOthersReported() throws IOException, BeerAlreadyRegisteredException, BeerNotFoundException {
+        beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Registered").build().toBeerDTO());
+        String csv = "name,brand,max,quantity,type\n" +
+                "Pilsen,Ambev,50,10,lager\n" +
+                "\"Stout, Extra\",Guinness,40,5,STOUT\n" +
+                "Registered,Ambev,50,10,LAGER\n" +
+                "Pilsen,Ambev,50,10,LAGER\n" +
+                "Broken,Ambev,fifty,10,LAGER\n";
+        List<BeerImportProgressDTO> progress = new ArrayList<>();
+
+        BeerImportProgressDTO result = beerService.importBeers(new StringReader(csv), BeerCatalogFormat.CSV, progress::add);
+
+        assertThat(result.isDone(), is(true));
+        assertThat(result.getRows(), is(5L));
+        assertThat(result.getImported(), is(2L));
+        assertThat(result.getFailed(), is(3L));
+        assertThat(progress.size(), is(3));
+        assertThat(progress.stream().flatMap(p -> p.getErrors().stream()).map(BeerImportErrorDTO::getLine).collect(Collectors.toList()), contains(4L, 5L, 6L));
+        assertThat(beerService.findByName("Stout, Extra").getBrand(), is("Guinness"));
+    }
+
+    @Test
+    void whenNdjsonRowBreaksAConstraintThenOnlyThatRowFails() throws IOException {
+        String ndjson = "{\"name\":\"Weiss\",\"brand\":\"Erdinger\",\"max\":50,\"quantity\":10,\"type\":\"WEISS\"}\n" +
+                "{\"name\":\"Overfilled\",\"brand\":\"Erdinger\",\"max\":50,\"quantity\":200,\"type\":\"WEISS\"}\n" +
+                "not json\n";
+
+        BeerImportProgressDTO result = beerService.importBeers(new StringReader(ndjson), BeerCatalogFormat.NDJSON, progress -> {
+        });
+
+        assertThat(result.getImported(), is(1L));
+        assertThat(result.getFailed(), is(2L));
+        assertThat(beerRepository.findByName("Weiss").isPresent(), is(true));
+        assertThat(beerRepository.findByName("Overfilled").isPresent(), is(false));
+    }
+
+    @Test
+    void whenCsvHeaderMissesAColumnThenNothingIsImported() throws IOException {
+        BeerImportProgressDTO result = beerService.importBeers(new StringReader("name,brand\nPilsen,Ambev\n"), BeerCatalogFormat.CSV, progress -> {
+        });
+
+        assertThat(result.getImported(), is(0L));
+        assertThat(result.getErrors().get(0).getMessage(), containsString("max, quantity, type"));
+    }
+}
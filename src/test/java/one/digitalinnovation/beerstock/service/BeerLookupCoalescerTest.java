@@ -0,0 +1,107 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerLookupCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BeerLookupCoalescer beerLookupCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        beerLookupCoalescer = new BeerLookupCoalescer(meterRegistry);
+    }
+
+    @Test
+    void whenIdenticalLookupsRunConcurrentlyThenOneQueryIsSharedByAll() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<Optional<BeerDTO>>> lookups = new ArrayList<>();
+        lookups.add(executor.submit(() -> beerLookupCoalescer.findByName(beerDTO.getName(), () -> {
+            queries.incrementAndGet();
+            queryStarted.countDown();
+            await(release);
+            return Optional.of(beerDTO);
+        })));
+        queryStarted.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 7; i++) {
+            lookups.add(executor.submit(() -> beerLookupCoalescer.findByName(beerDTO.getName(), () -> {
+                queries.incrementAndGet();
+                return Optional.of(beerDTO);
+            })));
+        }
+        while (collapsed("name") < 7) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (Future<Optional<BeerDTO>> lookup : lookups) {
+            BeerDTO found = lookup.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertThat(found, is(equalTo(beerDTO)));
+            assertThat(found, is(not(sameInstance(beerDTO))));
+        }
+        assertThat(queries.get(), is(1));
+        executor.shutdown();
+    }
+
+    @Test
+    void whenLookupIsOverThenNextOneQueriesAgain() {
+        AtomicInteger queries = new AtomicInteger();
+        Supplier<Optional<BeerDTO>> query = () -> {
+            queries.incrementAndGet();
+            return Optional.of(BeerDTOBuilder.builder().build().toBeerDTO());
+        };
+
+        beerLookupCoalescer.findById(1L, query);
+        beerLookupCoalescer.findById(1L, query);
+
+        assertThat(queries.get(), is(2));
+        assertThat(collapsed("id"), is(0.0));
+    }
+
+    @Test
+    void whenQueryFailsThenLookupFailsAndNothingIsKept() {
+        assertThrows(IllegalStateException.class, () -> beerLookupCoalescer.findById(1L, () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertThat(beerLookupCoalescer.findById(1L, Optional::empty), is(Optional.empty()));
+    }
+
+    private double collapsed(String key) {
+        return meterRegistry.get(BeerLookupCoalescer.LOOKUP_COUNTER).tag("key", key).tag("outcome", "collapsed").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
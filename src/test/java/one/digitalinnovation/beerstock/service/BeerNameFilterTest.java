@@ -0,0 +1,79 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BeerNameFilterTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BeerNameFilter beerNameFilter;
+
+    @BeforeEach
+    void setUp() {
+        beerNameFilter = new BeerNameFilter(beerRepository, transactionManager, new BeerStockProperties());
+    }
+
+    @Test
+    void whenFilterIsNotBuiltThenNoNameIsReportedAbsent() {
+        assertThat(beerNameFilter.isAbsent("Brahma"), is(false));
+    }
+
+    @Test
+    void whenFilterIsBuiltThenRegisteredNamesAreNeverReportedAbsent() {
+        when(beerRepository.count()).thenReturn(2L);
+        when(beerRepository.streamAllNames()).thenReturn(Stream.of("Brahma", "Skol"));
+
+        beerNameFilter.rebuild();
+
+        assertThat(beerNameFilter.isAbsent("Brahma"), is(false));
+        assertThat(beerNameFilter.isAbsent("Skol"), is(false));
+        assertThat(beerNameFilter.isAbsent("Heineken"), is(true));
+    }
+
+    @Test
+    void whenNameIsPutDuringRebuildThenItSurvivesTheRebuild() {
+        when(beerRepository.count()).thenReturn(0L);
+        when(beerRepository.streamAllNames()).thenAnswer(invocation -> {
+            beerNameFilter.put("Colorado");
+            return Stream.empty();
+        });
+
+        beerNameFilter.rebuild();
+
+        assertThat(beerNameFilter.isAbsent("Colorado"), is(false));
+    }
+
+    @Test
+    void whenManyUnknownNamesAreCheckedThenFalsePositivesStayNearTarget() {
+        when(beerRepository.count()).thenReturn(10_000L);
+        when(beerRepository.streamAllNames()).thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "Beer " + i));
+
+        beerNameFilter.rebuild();
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .mapToObj(i -> "Unknown " + i)
+                .filter(name -> !beerNameFilter.isAbsent(name))
+                .count();
+        assertThat(falsePositives, lessThan(2_000L));
+    }
+}
@@ -1,10 +1,14 @@
 package one.digitalinnovation.beerstock.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
 import one.digitalinnovation.beerstock.exceptions.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exceptions.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exceptions.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockExceededException;
 import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
@@ -13,7 +17,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Collections;
 import java.util.List;
@@ -32,6 +44,48 @@ class BeerServiceTest {
     @Mock
     private BeerRepository beerRepository;
 
+    @Mock
+    private StockAdjuster stockAdjuster;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private BeerCache beerCache;
+
+    @Mock
+    private BeerNameFilter beerNameFilter;
+
+    @Mock
+    private StockAlertEngine stockAlertEngine;
+
+    @Mock
+    private StockChangeStream stockChangeStream;
+
+    @Mock
+    private StockJournal stockJournal;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private BeerCatalogVersion beerCatalogVersion;
+
+    @Mock
+    private LocationStockManager locationStockManager;
+
+    @Mock
+    private StockReservations stockReservations;
+
+    @Mock
+    private StockOutbox stockOutbox;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private BeerLookupCoalescer beerLookupCoalescer = new BeerLookupCoalescer(new SimpleMeterRegistry());
+
     @InjectMocks
     private BeerService beerService;
 
@@ -45,7 +99,7 @@ class BeerServiceTest {
 
         // when
         when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
-        when(beerRepository.save(expectedSavedBeer)).thenReturn(expectedSavedBeer);
+        when(beerRepository.saveAndFlush(expectedSavedBeer)).thenReturn(expectedSavedBeer);
 
         // then
         BeerDTO createdBeer = beerService.createBeer(expectedBeerDTO);
@@ -53,7 +107,8 @@ class BeerServiceTest {
         assertThat(createdBeer.getId(), is(equalTo(expectedBeerDTO.getId())));
         assertThat(createdBeer.getName(), is(equalTo(expectedBeerDTO.getName())));
         assertThat(createdBeer.getQuantity(), is(equalTo(expectedBeerDTO.getQuantity())));
-
+        verify(stockOutbox, times(1)).created(List.of(expectedSavedBeer));
+        verify(stockJournal, times(1)).created(List.of(expectedSavedBeer));
     }
 
     @Test
@@ -69,6 +124,35 @@ class BeerServiceTest {
         assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
     }
 
+    @Test
+    void whenNameIsMissingFromTheFilterThenRegistrationStillChecksTheDatabase() {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer duplicatedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        // when
+        lenient().when(beerNameFilter.isAbsent(expectedBeerDTO.getName())).thenReturn(true);
+        when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.of(duplicatedBeer));
+
+        // then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
+        verify(beerRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void whenNameIsRegisteredConcurrentlyThenTheUniqueViolationIsReportedAsAlreadyRegistered() {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
+        when(beerRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("unique name"));
+
+        // then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
+        verify(beerCache, never()).putCreated(any());
+    }
+
     @Test
     void whenValidBeerNameIsGivenThenReturnABeer() throws BeerNotFoundException {
         //given
@@ -82,6 +166,23 @@ class BeerServiceTest {
         BeerDTO foundBeer = beerService.findByName(expectedFoundBeerDTO.getName());
 
         assertThat(foundBeer, is(equalTo(expectedFoundBeerDTO)));
+        verify(transactionTemplate.getTransactionManager(), times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void whenCachedBeerNameIsGivenThenDatabaseIsNotQueried() throws BeerNotFoundException {
+        //given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        when(beerCache.findByName(expectedFoundBeerDTO.getName())).thenReturn(Optional.of(expectedFoundBeerDTO));
+
+        // then
+        BeerDTO foundBeer = beerService.findByName(expectedFoundBeerDTO.getName());
+
+        assertThat(foundBeer, is(equalTo(expectedFoundBeerDTO)));
+        verify(beerRepository, never()).findByName(expectedFoundBeerDTO.getName());
+        verify(transactionTemplate.getTransactionManager(), never()).getTransaction(any());
     }
 
     @Test
@@ -96,6 +197,20 @@ class BeerServiceTest {
         assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedFoundBeerDTO.getName()));
     }
 
+    @Test
+    void whenNameIsAbsentFromFilterThenDatabaseIsNotQueried() {
+        //given
+        String unknownName = "Unknown";
+
+        // when
+        when(beerNameFilter.isAbsent(unknownName)).thenReturn(true);
+
+        // then
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(unknownName));
+        verify(beerRepository, never()).findByName(unknownName);
+        verify(transactionTemplate.getTransactionManager(), never()).getTransaction(any());
+    }
+
     @Test
     void whenListBeersIsCalledThenReturnAListOfBeers() {
         //given
@@ -121,6 +236,54 @@ class BeerServiceTest {
         assertThat(foundBeerDTOList, is(empty()));
     }
 
+    @Test
+    void whenListAfterCursorIsCalledThenReturnAPageWithNextCursor() {
+        //given
+        Beer firstBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).name("Brahma").build().toBeerDTO());
+        Beer secondBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(3L).name("Skol").build().toBeerDTO());
+
+        // when
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 2))).thenReturn(List.of(firstBeer, secondBeer));
+
+        // then
+        BeerPageDTO beerPageDTO = beerService.findAfter(1L, 1);
+        assertThat(beerPageDTO.getContent(), hasSize(1));
+        assertThat(beerPageDTO.isHasNext(), is(true));
+        assertThat(beerPageDTO.getNextCursor(), is(equalTo(2L)));
+    }
+
+    @Test
+    void whenListAfterLastCursorIsCalledThenReturnTheLastPage() {
+        //given
+        Beer lastBeer = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).build().toBeerDTO());
+
+        // when
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 21))).thenReturn(List.of(lastBeer));
+
+        // then
+        BeerPageDTO beerPageDTO = beerService.findAfter(1L, 20);
+        assertThat(beerPageDTO.getContent(), hasSize(1));
+        assertThat(beerPageDTO.isHasNext(), is(false));
+        assertThat(beerPageDTO.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    void whenSearchIsCalledThenSortIsTieBrokenByIdAndPageIsReturned() {
+        //given
+        Beer beer = beerMapper.toModel(BeerDTOBuilder.builder().build().toBeerDTO());
+        BeerSearchDTO beerSearchDTO = BeerSearchDTO.builder().brand(beer.getBrand()).sort("quantity").direction(Sort.Direction.DESC).build();
+        PageRequest expectedPageRequest = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "quantity").and(Sort.by("id")));
+
+        // when
+        when(beerRepository.search(any(), eq(expectedPageRequest))).thenReturn(new SliceImpl<>(List.of(beer), expectedPageRequest, false));
+
+        // then
+        BeerPageDTO beerPageDTO = beerService.search(beerSearchDTO);
+        assertThat(beerPageDTO.getContent(), hasSize(1));
+        assertThat(beerPageDTO.getContent().get(0).getName(), is(equalTo(beer.getName())));
+        assertThat(beerPageDTO.isHasNext(), is(false));
+    }
+
     @Test
     void whenExclusionIsCalledWithValidIdThenBeerShouldBeerDeleted() throws BeerNotFoundException {
         //given
@@ -136,27 +299,48 @@ class BeerServiceTest {
 
         verify(beerRepository, times(1)).findById(expectedDeleteBeerDTO.getId());
         verify(beerRepository, times(1)).deleteById(expectedDeleteBeerDTO.getId());
+        verify(beerCache, times(1)).evict(expectedDeletedBeer);
+        verify(locationStockManager, times(1)).deleteByBeerId(expectedDeleteBeerDTO.getId());
+        verify(stockOutbox, times(1)).deleted(expectedDeleteBeerDTO.getId());
+        verify(beerCatalogVersion, times(1)).bump();
     }
 
     @Test
-    void whenIncrementIsCalledThenIncrementBeerStock() throws BeerNotFoundException, BeerStockExceededException {
+    void whenLocationsCannotBeDeletedThenTheBeerDeleteIsRolledBackWithThem() throws BeerNotFoundException {
         //given
-        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        BeerDTO expectedDeleteBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedDeletedBeer = beerMapper.toModel(expectedDeleteBeerDTO);
 
         // when
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
+        when(beerRepository.findById(expectedDeleteBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+        doThrow(new IllegalStateException("location delete failed")).when(locationStockManager).deleteByBeerId(expectedDeleteBeerDTO.getId());
 
+        // then
+        assertThrows(IllegalStateException.class, () -> beerService.deleteById(expectedDeleteBeerDTO.getId()));
+        verify(transactionTemplate.getTransactionManager(), times(1)).rollback(any());
+        verify(transactionTemplate.getTransactionManager(), never()).commit(any());
+        verify(beerCache, never()).evict(expectedDeletedBeer);
+    }
+
+    @Test
+    void whenIncrementIsCalledThenIncrementBeerStock() throws BeerNotFoundException, BeerStockExceededException, BeerStockConflictException {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
         int quantityToIncrement = 10;
         int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
+        expectedBeer.setQuantity(expectedQuantityAfterIncrement);
+
+        // when
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(StockAdjustment.applied(expectedBeer, 1));
 
         // then
         BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), quantityToIncrement);
 
         assertThat(expectedQuantityAfterIncrement, equalTo(incrementedBeerDTO.getQuantity()));
         assertThat(expectedQuantityAfterIncrement, lessThan(incrementedBeerDTO.getMax()));
+        verify(stockAlertEngine, times(1)).onStockChanged(expectedBeer);
     }
 
     @Test
@@ -165,11 +349,12 @@ class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
+        int quantityToIncrement = 80;
+
         // when
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(StockAdjustment.outOfBounds(expectedBeer));
 
         // then
-        int quantityToIncrement = 80;
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
     }
 
@@ -180,35 +365,50 @@ class BeerServiceTest {
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
         // when
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        int quantityToIncrement = 45;
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(StockAdjustment.outOfBounds(expectedBeer));
 
         // then
-        int quantityToIncrement = 45;
         assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
     }
 
     @Test
     void whenIncrementIsCalledWithInvalidIdThenThrowsException() {
+        // given
+        int quantityToIncrement = 10;
+
         // when
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(stockAdjuster.adjust(INVALID_BEER_ID, quantityToIncrement)).thenReturn(StockAdjustment.notFound());
 
-        int quantityToIncrement = 10;
         // then
         assertThrows(BeerNotFoundException.class, () -> beerService.increment(INVALID_BEER_ID, quantityToIncrement));
     }
 
     @Test
-    void whenDecrementIsCalledThenDecrementBeerStock() throws BeerNotFoundException, BeerStockLessThanZeroException {
-        // given
+    void whenIncrementKeepsConflictingThenThrowsException() {
+        //given
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        int quantityToIncrement = 10;
 
         // when
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(StockAdjustment.conflict(5));
+
+        // then
+        assertThrows(BeerStockConflictException.class, () -> beerService.increment(expectedBeerDTO.getId(), quantityToIncrement));
+    }
+
+    @Test
+    void whenDecrementIsCalledThenDecrementBeerStock() throws BeerNotFoundException, BeerStockLessThanZeroException, BeerStockConflictException {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
         int quantityToDecrement = 2;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
+        expectedBeer.setQuantity(expectedQuantityAfterDecrement);
+
+        // when
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), -quantityToDecrement)).thenReturn(StockAdjustment.applied(expectedBeer, 1));
 
         // then
         BeerDTO beerDTODecremented = beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement);
@@ -223,10 +423,11 @@ class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
+        int quantityToDecrement = expectedBeerDTO.getQuantity() + 1;
+
         // when
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockAdjuster.adjust(expectedBeerDTO.getId(), -quantityToDecrement)).thenReturn(StockAdjustment.outOfBounds(expectedBeer));
 
-        int quantityToDecrement = expectedBeerDTO.getQuantity() + 1;
         // then
         assertThrows(BeerStockLessThanZeroException.class, () -> beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement));
     }
@@ -237,9 +438,9 @@ class BeerServiceTest {
         int quantityToDecrement = 1;
 
         // when
-        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+        when(stockAdjuster.adjust(INVALID_BEER_ID, -quantityToDecrement)).thenReturn(StockAdjustment.notFound());
 
         // then
         assertThrows(BeerNotFoundException.class, () -> beerService.decrement(INVALID_BEER_ID, quantityToDecrement));
     }
-}
\ No newline at end of file
+}
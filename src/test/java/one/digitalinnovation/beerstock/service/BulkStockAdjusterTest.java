@@ -0,0 +1,158 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentDTO;
+import one.digitalinnovation.beerstock.dto.BulkStockAdjustmentResultDTO;
+import one.digitalinnovation.beerstock.dto.StockOperationDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BulkMode;
+import one.digitalinnovation.beerstock.enums.StockOperationStatus;
+import one.digitalinnovation.beerstock.exceptions.BeerStockConflictException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class BulkStockAdjusterTest {
+
+    @Autowired
+    private BulkStockAdjuster bulkStockAdjuster;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenEveryOperationIsValidThenAllAreApplied() throws BeerStockConflictException {
+        Beer brahma = saveBeer("Brahma", 50, 10);
+        Beer skol = saveBeer("Skol", 50, 10);
+
+        BulkStockAdjustmentResultDTO result = bulkStockAdjuster.adjust(bulk(BulkMode.ALL_OR_NOTHING,
+                operation(brahma, 20), operation(skol, -5), operation(brahma, 15)));
+
+        assertThat(result.getApplied(), is(3));
+        assertThat(result.getResults().get(2).getQuantity(), is(45));
+        assertThat(persistedQuantity(brahma), is(45));
+        assertThat(persistedQuantity(skol), is(5));
+    }
+
+    @Test
+    void whenOperationsAreAppliedThenTheyAreWrittenInOneBatch() throws BeerStockConflictException {
+        Beer brahma = saveBeer("Brahma", 50, 10);
+        Beer skol = saveBeer("Skol", 50, 10);
+
+        bulkStockAdjuster.adjust(bulk(BulkMode.ALL_OR_NOTHING,
+                operation(skol, 1), operation(brahma, 2), operation(skol, 3)));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(BulkStockAdjuster.ADJUST_QUANTITY_SQL), anyList());
+        assertThat(persistedQuantity(brahma), is(12));
+        assertThat(persistedQuantity(skol), is(14));
+    }
+
+    @Test
+    void whenOneOperationIsInvalidInAllOrNothingModeThenNothingIsApplied() throws BeerStockConflictException {
+        Beer brahma = saveBeer("Brahma", 50, 10);
+        Beer skol = saveBeer("Skol", 50, 10);
+
+        BulkStockAdjustmentResultDTO result = bulkStockAdjuster.adjust(bulk(BulkMode.ALL_OR_NOTHING,
+                operation(brahma, 20), operation(skol, -11)));
+
+        assertThat(result.getApplied(), is(0));
+        assertThat(result.getResults().get(0).getStatus(), is(StockOperationStatus.SKIPPED));
+        assertThat(result.getResults().get(1).getStatus(), is(StockOperationStatus.LESS_THAN_ZERO));
+        assertThat(persistedQuantity(brahma), is(10));
+        assertThat(persistedQuantity(skol), is(10));
+    }
+
+    @Test
+    void whenSomeOperationsAreInvalidInBestEffortModeThenValidOnesAreApplied() throws BeerStockConflictException {
+        Beer brahma = saveBeer("Brahma", 50, 10);
+
+        BulkStockAdjustmentResultDTO result = bulkStockAdjuster.adjust(bulk(BulkMode.BEST_EFFORT,
+                operation(brahma, 20), operation(brahma, 30),
+                StockOperationDTO.builder().id(Long.MAX_VALUE).delta(1).build()));
+
+        assertThat(result.getApplied(), is(1));
+        assertThat(result.getResults().get(1).getStatus(), is(StockOperationStatus.EXCEEDS_MAX));
+        assertThat(result.getResults().get(2).getStatus(), is(StockOperationStatus.NOT_FOUND));
+        assertThat(persistedQuantity(brahma), is(30));
+    }
+
+    @Test
+    void whenBulksRunConcurrentlyThenNoAppliedOperationIsLost() throws Exception {
+        Beer brahma = saveBeer("Brahma", 10_000, 0);
+        Beer skol = saveBeer("Skol", 10_000, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Callable<Integer> worker = () -> {
+                    int applied = 0;
+                    for (int j = 0; j < 25; j++) {
+                        try {
+                            applied += bulkStockAdjuster.adjust(bulk(BulkMode.ALL_OR_NOTHING,
+                                    operation(skol, 1), operation(brahma, 1), operation(brahma, 1))).getApplied();
+                        } catch (BeerStockConflictException e) {
+                            // retried out; nothing was written
+                        }
+                    }
+                    return applied;
+                };
+                results.add(executor.submit(worker));
+            }
+
+            int applied = 0;
+            for (Future<Integer> result : results) {
+                applied += result.get(1, TimeUnit.MINUTES);
+            }
+            assertThat(persistedQuantity(brahma) + persistedQuantity(skol), is(applied));
+            assertThat(persistedQuantity(brahma), is(2 * persistedQuantity(skol)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BulkStockAdjustmentDTO bulk(BulkMode mode, StockOperationDTO... operations) {
+        return BulkStockAdjustmentDTO.builder().mode(mode).operations(List.of(operations)).build();
+    }
+
+    private StockOperationDTO operation(Beer beer, int delta) {
+        return StockOperationDTO.builder().id(beer.getId()).delta(delta).build();
+    }
+
+    private int persistedQuantity(Beer beer) {
+        return beerRepository.findById(beer.getId()).orElseThrow().getQuantity();
+    }
+
+    private Beer saveBeer(String name, int max, int quantity) {
+        Beer beer = BeerMapper.INSTANCE.toModel(BeerDTOBuilder.builder().id(null).name(name).max(max).quantity(quantity).build().toBeerDTO());
+        return beerRepository.save(beer);
+    }
+}
@@ -0,0 +1,166 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.IdempotencyRecord;
+import one.digitalinnovation.beerstock.exceptions.IdempotencyKeyConflictException;
+import one.digitalinnovation.beerstock.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    private static final String CLIENT = "client:integration-a";
+    private static final String KEY = "3f1c2a9e";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BeerStockProperties properties;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BeerStockProperties();
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository, jdbcTemplate, transactionManager,
+                objectMapper, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whenKeyIsRetriedThenFirstResultIsReplayed() throws IdempotencyKeyConflictException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(20).build().toBeerDTO();
+
+        IdempotencyStore.Claim claim = idempotencyStore.claim(CLIENT, KEY, "increment:1:10");
+        claim.complete(beerDTO);
+        claim.release();
+        IdempotencyStore.Claim retry = idempotencyStore.claim(CLIENT, KEY, "increment:1:10");
+
+        assertThat(claim.isReplay(), is(false));
+        assertThat(retry.isReplay(), is(true));
+        assertThat(retry.getResult(), is(equalTo(beerDTO)));
+    }
+
+    @Test
+    void whenKeyIsReusedForAnotherRequestThenConflictIsThrown() throws IdempotencyKeyConflictException {
+        idempotencyStore.claim(CLIENT, KEY, "increment:1:10");
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> idempotencyStore.claim(CLIENT, KEY, "decrement:1:10"));
+    }
+
+    @Test
+    void whenAnotherClientSendsTheSameKeyThenItGetsAClaimOfItsOwn() throws IdempotencyKeyConflictException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        IdempotencyStore.Claim claim = idempotencyStore.claim(CLIENT, KEY, "increment:1:10");
+        claim.complete(beerDTO);
+
+        IdempotencyStore.Claim other = idempotencyStore.claim("client:integration-b", KEY, "decrement:1:10");
+
+        assertThat(other.isReplay(), is(false));
+    }
+
+    @Test
+    void whenDuplicateArrivesWhileInFlightThenItWaitsForTheResult() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        IdempotencyStore.Claim claim = idempotencyStore.claim(CLIENT, KEY, "increment:1:10");
+
+        CompletableFuture<IdempotencyStore.Claim> duplicate = CompletableFuture.supplyAsync(() -> {
+            try {
+                return idempotencyStore.claim(CLIENT, KEY, "increment:1:10");
+            } catch (IdempotencyKeyConflictException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(duplicate.isDone(), is(false));
+
+        claim.complete(beerDTO);
+
+        IdempotencyStore.Claim replay = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replay.isReplay(), is(true));
+        assertThat(replay.getResult(), is(equalTo(beerDTO)));
+    }
+
+    @Test
+    void whenClaimIsReleasedWithoutResultThenNextRequestRunsAgain() throws IdempotencyKeyConflictException {
+        idempotencyStore.claim(CLIENT, KEY, "increment:1:10").release();
+
+        assertThat(idempotencyStore.claim(CLIENT, KEY, "increment:1:10").isReplay(), is(false));
+    }
+
+    @Test
+    void whenPersistentAndResultIsOnlyInTableThenItIsReplayed() throws Exception {
+        properties.getIdempotency().setPersistent(true);
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        String scopedKey = IdempotencyStore.scope(CLIENT, KEY);
+        IdempotencyRecord record = new IdempotencyRecord(scopedKey, "create:" + beerDTO, objectMapper.writeValueAsString(beerDTO), Instant.now());
+
+        when(idempotencyRecordRepository.findById(scopedKey)).thenReturn(Optional.of(record));
+
+        IdempotencyStore.Claim claim = idempotencyStore.claim(CLIENT, KEY, "create:" + beerDTO);
+        assertThat(claim.isReplay(), is(true));
+        assertThat(claim.getResult(), is(equalTo(beerDTO)));
+    }
+
+    @Test
+    void whenPersistentThenResultIsInsertedInTheTransactionOfTheOperation() throws Exception {
+        properties.getIdempotency().setPersistent(true);
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Runnable operation = mock(Runnable.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        IdempotencyStore.Claim claim = idempotencyStore.claim(CLIENT, KEY, "increment:1:10");
+        operation.run();
+        claim.complete(beerDTO);
+        claim.release();
+
+        InOrder inOrder = inOrder(transactionManager, operation, jdbcTemplate);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(operation).run();
+        inOrder.verify(jdbcTemplate).update(ArgumentMatchers.startsWith("insert"), eq(IdempotencyStore.scope(CLIENT, KEY)), eq("increment:1:10"), anyString(), any());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void whenPersistentOperationFailsThenItsWritesAreRolledBackAndNothingIsStored() throws Exception {
+        properties.getIdempotency().setPersistent(true);
+        TransactionStatus transaction = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+
+        idempotencyStore.claim(CLIENT, KEY, "increment:1:100").release();
+
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager, never()).commit(any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,121 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerLocationsDTO;
+import one.digitalinnovation.beerstock.dto.LocationStockDTO;
+import one.digitalinnovation.beerstock.dto.LocationTransferDTO;
+import one.digitalinnovation.beerstock.entity.LocationStock;
+import one.digitalinnovation.beerstock.exceptions.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.exceptions.StockLocationNotFoundException;
+import one.digitalinnovation.beerstock.repository.LocationStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class LocationStockManagerTest {
+
+    private static final long BEER_ID = 1L;
+
+    @Autowired
+    private LocationStockManager locationStockManager;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        locationStockManager.setCapacity(BEER_ID, "north", 50);
+        locationStockManager.setCapacity(BEER_ID, "south", 20);
+        locationStockManager.increment(BEER_ID, "north", 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        locationStockManager.deleteByBeerId(BEER_ID);
+    }
+
+    @Test
+    void whenStockIsTransferredThenBothLocationsChangeAndTotalStays() throws Exception {
+        BeerLocationsDTO locations = locationStockManager.transfer(BEER_ID, new LocationTransferDTO("north", "south", 15));
+
+        assertThat(quantities(locations), contains(15, 15));
+        assertThat(locations.getTotal(), is(30L));
+    }
+
+    @Test
+    void whenTransferWouldOverfillTargetThenNeitherLocationChanges() {
+        assertThrows(BeerStockExceededException.class,
+                () -> locationStockManager.transfer(BEER_ID, new LocationTransferDTO("north", "south", 25)));
+
+        assertThat(quantities(locationStockManager.findLocations(BEER_ID)), contains(30, 0));
+    }
+
+    @Test
+    void whenLocationWouldGoBelowZeroThenDecrementIsRejected() {
+        assertThrows(BeerStockLessThanZeroException.class, () -> locationStockManager.decrement(BEER_ID, "south", 1));
+        assertThrows(StockLocationNotFoundException.class, () -> locationStockManager.increment(BEER_ID, "east", 1));
+    }
+
+    @Test
+    void whenLocationsAreWrittenConcurrentlyThenTotalMatchesTheRows() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<LocationStockDTO>> writes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String location = i % 2 == 0 ? "north" : "south";
+            writes.add(executor.submit(() -> locationStockManager.increment(BEER_ID, location, 1)));
+        }
+        for (Future<LocationStockDTO> write : writes) {
+            write.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int rows = locationStockRepository.findByBeerIdOrderByLocation(BEER_ID).stream().mapToInt(LocationStock::getQuantity).sum();
+        assertThat(rows, is(50));
+        assertThat(locationStockManager.findLocations(BEER_ID).getTotal(), is(50L));
+    }
+
+    @Test
+    void whenTheSameLocationIsOpenedConcurrentlyThenEveryCallSucceedsOnOneRow() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                String location = "east-" + round;
+                CyclicBarrier start = new CyclicBarrier(8);
+                List<Future<LocationStockDTO>> writes = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    writes.add(executor.submit(() -> {
+                        start.await();
+                        return locationStockManager.setCapacity(BEER_ID, location, 40);
+                    }));
+                }
+                for (Future<LocationStockDTO> write : writes) {
+                    assertThat(write.get(10, TimeUnit.SECONDS).getMax(), is(40));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(locationStockRepository.findByBeerIdOrderByLocation(BEER_ID), hasSize(22));
+    }
+
+    private static List<Integer> quantities(BeerLocationsDTO locations) {
+        return locations.getLocations().stream().map(LocationStockDTO::getQuantity).collect(Collectors.toList());
+    }
+}
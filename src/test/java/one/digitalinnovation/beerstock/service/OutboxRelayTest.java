@@ -0,0 +1,132 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.LocationTransferDTO;
+import one.digitalinnovation.beerstock.dto.OutboxEventDTO;
+import one.digitalinnovation.beerstock.enums.OutboxEventType;
+import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "beerstock.outbox.publisher=event",
+        "beerstock.outbox.relay-interval=PT1H",
+        "beerstock.outbox.batch-size=2"
+})
+class OutboxRelayTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        listener.events.clear();
+    }
+
+    @Test
+    void whenBeerChangesThenItsEventsArePublishedInOrderAndRemoved() throws Exception {
+        Long id = beerService.createBeer(BeerDTOBuilder.builder().id(null).quantity(10).build().toBeerDTO()).getId();
+        beerService.increment(id, 5);
+        assertThrows(BeerStockLessThanZeroException.class, () -> beerService.decrement(id, 20));
+        beerService.decrement(id, 3);
+        beerService.deleteById(id);
+
+        outboxRelay.relay();
+
+        assertThat(listener.events.stream().map(OutboxEventDTO::getType).collect(Collectors.toList()), contains(
+                OutboxEventType.CREATED, OutboxEventType.STOCK_CHANGED, OutboxEventType.STOCK_CHANGED, OutboxEventType.DELETED));
+        assertThat(listener.events.stream().map(OutboxEventDTO::getQuantity).collect(Collectors.toList()), contains(10, 15, 12, 0));
+        assertThat(outboxEventRepository.count(), is(0L));
+    }
+
+    @Test
+    void whenPublishingFailsThenEventsAreKeptAndPublishedAgain() throws Exception {
+        Long id = beerService.createBeer(BeerDTOBuilder.builder().id(null).build().toBeerDTO()).getId();
+        beerService.increment(id, 1);
+        listener.failNext.set(true);
+
+        outboxRelay.relay();
+        assertThat(outboxEventRepository.count(), is(2L));
+
+        outboxRelay.relay();
+        List<OutboxEventType> types = listener.events.stream().map(OutboxEventDTO::getType).collect(Collectors.toList());
+        assertThat(types.subList(types.size() - 2, types.size()), contains(OutboxEventType.CREATED, OutboxEventType.STOCK_CHANGED));
+        assertThat(outboxEventRepository.count(), is(0L));
+    }
+
+    @Test
+    void whenLocationStockChangesThenItsEventsArePublishedWithTheLocation() throws Exception {
+        Long id = beerService.createBeer(BeerDTOBuilder.builder().id(null).quantity(10).build().toBeerDTO()).getId();
+        beerService.setLocationCapacity(id, "north", 50);
+        beerService.setLocationCapacity(id, "south", 20);
+        beerService.incrementAt(id, "north", 30);
+        beerService.transfer(id, new LocationTransferDTO("north", "south", 15));
+        assertThrows(BeerStockLessThanZeroException.class, () -> beerService.decrementAt(id, "south", 16));
+        listener.events.clear();
+
+        outboxRelay.relay();
+
+        List<OutboxEventDTO> events = listener.events.stream().filter(event -> event.getLocation() != null).collect(Collectors.toList());
+        assertThat(events.stream().map(event -> event.getType() + " " + event.getLocation() + " " + event.getDelta() + " " + event.getQuantity())
+                .collect(Collectors.toList()), contains(
+                "LOCATION_CAPACITY_CHANGED north 0 50",
+                "LOCATION_CAPACITY_CHANGED south 0 20",
+                "LOCATION_STOCK_CHANGED north 30 30",
+                "LOCATION_STOCK_CHANGED north -15 15",
+                "LOCATION_STOCK_CHANGED south 15 15"));
+        beerService.deleteById(id);
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener {
+
+        private final List<OutboxEventDTO> events = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean failNext = new AtomicBoolean();
+
+        @EventListener
+        public void onEvent(OutboxEventDTO event) {
+            events.add(event);
+            if (failNext.getAndSet(false)) {
+                throw new IllegalStateException("Publisher unavailable");
+            }
+        }
+    }
+}
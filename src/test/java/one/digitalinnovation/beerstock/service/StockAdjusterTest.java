@@ -0,0 +1,149 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.StockAdjustmentMode;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest
+class StockAdjusterTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 50;
+
+    @Autowired
+    private StockAdjuster stockAdjuster;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private BeerStockProperties properties;
+
+    @AfterEach
+    void tearDown() {
+        properties.getStock().setAdjustmentMode(StockAdjustmentMode.CONDITIONAL);
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenAdjustmentStaysWithinBoundsThenItIsApplied() {
+        Beer beer = saveBeer(50, 10);
+
+        StockAdjustment adjustment = stockAdjuster.adjust(beer.getId(), 5);
+
+        assertThat(adjustment.getStatus(), is(StockAdjustment.Status.APPLIED));
+        assertThat(adjustment.getBeer().getQuantity(), is(15));
+    }
+
+    @Test
+    void whenAdjustmentCrossesABoundThenNothingIsWritten() {
+        Beer beer = saveBeer(50, 10);
+
+        assertThat(stockAdjuster.adjust(beer.getId(), 41).getStatus(), is(StockAdjustment.Status.OUT_OF_BOUNDS));
+        assertThat(stockAdjuster.adjust(beer.getId(), -11).getStatus(), is(StockAdjustment.Status.OUT_OF_BOUNDS));
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantity(), is(10));
+    }
+
+    @Test
+    void whenBeerDoesNotExistThenNotFoundIsReported() {
+        assertThat(stockAdjuster.adjust(Long.MAX_VALUE, 1).getStatus(), is(StockAdjustment.Status.NOT_FOUND));
+    }
+
+    @Test
+    void whenConcurrentConditionalIncrementsThenNoUpdateIsLost() throws Exception {
+        Beer beer = saveBeer(THREADS * OPERATIONS_PER_THREAD, 0);
+
+        int applied = runConcurrently(beer.getId(), 1);
+
+        assertThat(applied, is(THREADS * OPERATIONS_PER_THREAD));
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantity(), is(applied));
+    }
+
+    @Test
+    void whenConcurrentDecrementsHitZeroThenStockNeverGoesNegative() throws Exception {
+        Beer beer = saveBeer(100, 40);
+
+        int applied = runConcurrently(beer.getId(), -1);
+
+        assertThat(applied, is(40));
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantity(), is(0));
+    }
+
+    @Test
+    void whenConcurrentOptimisticIncrementsThenEveryAppliedUpdateIsKept() throws Exception {
+        properties.getStock().setAdjustmentMode(StockAdjustmentMode.OPTIMISTIC);
+        Beer beer = saveBeer(THREADS * OPERATIONS_PER_THREAD, 0);
+
+        int applied = runConcurrently(beer.getId(), 1);
+
+        assertThat(applied, is(greaterThan(0)));
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantity(), is(applied));
+    }
+
+    @Test
+    void whenConcurrentOptimisticDecrementsHitZeroThenStockNeverGoesNegative() throws Exception {
+        properties.getStock().setAdjustmentMode(StockAdjustmentMode.OPTIMISTIC);
+        Beer beer = saveBeer(100, 40);
+
+        int applied = runConcurrently(beer.getId(), -1);
+
+        assertThat(applied, is(lessThanOrEqualTo(40)));
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getQuantity(), is(40 - applied));
+    }
+
+    private Beer saveBeer(int max, int quantity) {
+        Beer beer = BeerMapper.INSTANCE.toModel(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+        beer.setMax(max);
+        beer.setQuantity(quantity);
+        return beerRepository.save(beer);
+    }
+
+    private int runConcurrently(Long id, int delta) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Integer> worker = () -> {
+                    start.await();
+                    int applied = 0;
+                    for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                        if (stockAdjuster.adjust(id, delta).isApplied()) {
+                            applied++;
+                        }
+                    }
+                    return applied;
+                };
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+
+            int applied = 0;
+            for (Future<Integer> result : results) {
+                applied += result.get(1, TimeUnit.MINUTES);
+            }
+            return applied;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class StockAlertEngineTest {
+
+    private final List<StockAlertDTO> alerts = new ArrayList<>();
+
+    private StockAlertEngine stockAlertEngine;
+
+    @BeforeEach
+    void setUp() {
+        stockAlertEngine = new StockAlertEngine(new BeerStockProperties(), alerts::add, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whenStockFallsBelowReorderThresholdThenLowStockIsRaisedOnce() {
+        stockAlertEngine.onStockChanged(beer(50, 0L));
+        stockAlertEngine.onStockChanged(beer(20, 1L));
+        stockAlertEngine.onStockChanged(beer(15, 2L));
+
+        assertThat(levels(), contains(StockLevel.LOW));
+        assertThat(alerts.get(0).getPreviousLevel(), is(StockLevel.NORMAL));
+        assertThat(alerts.get(0).getQuantity(), is(20));
+    }
+
+    @Test
+    void whenStockFlapsInsideHysteresisMarginThenNoAlertIsRaisedAgain() {
+        stockAlertEngine.onStockChanged(beer(20, 1L));
+        stockAlertEngine.onStockChanged(beer(24, 2L));
+        stockAlertEngine.onStockChanged(beer(19, 3L));
+        stockAlertEngine.onStockChanged(beer(23, 4L));
+
+        assertThat(levels(), contains(StockLevel.LOW));
+        assertThat(stockAlertEngine.levelOf(1L), is(StockLevel.LOW));
+    }
+
+    @Test
+    void whenStockMovesPastHysteresisMarginThenLevelIsCleared() {
+        stockAlertEngine.onStockChanged(beer(10, 1L));
+        stockAlertEngine.onStockChanged(beer(26, 2L));
+        stockAlertEngine.onStockChanged(beer(90, 3L));
+        stockAlertEngine.onStockChanged(beer(86, 4L));
+        stockAlertEngine.onStockChanged(beer(84, 5L));
+
+        assertThat(levels(), contains(StockLevel.LOW, StockLevel.NORMAL, StockLevel.OVERSTOCK, StockLevel.NORMAL));
+    }
+
+    @Test
+    void whenObservationIsOlderThanLastOneSeenThenItIsIgnored() {
+        stockAlertEngine.onStockChanged(beer(50, 5L));
+        stockAlertEngine.onStockChanged(beer(10, 4L));
+
+        assertThat(alerts, is(empty()));
+    }
+
+    @Test
+    void whenSinkFailsThenStockChangeIsNotFailed() {
+        stockAlertEngine = new StockAlertEngine(new BeerStockProperties(), alert -> {
+            throw new IllegalStateException("sink down");
+        }, new SimpleMeterRegistry());
+
+        stockAlertEngine.onStockChanged(beer(10, 1L));
+
+        assertThat(stockAlertEngine.levelOf(1L), is(StockLevel.LOW));
+    }
+
+    private List<StockLevel> levels() {
+        return alerts.stream().map(StockAlertDTO::getLevel).collect(Collectors.toList());
+    }
+
+    private static Beer beer(int quantity, long version) {
+        return new Beer(1L, "Brahma", "Ambev", 100, quantity, BeerType.LAGER, version, 0);
+    }
+}
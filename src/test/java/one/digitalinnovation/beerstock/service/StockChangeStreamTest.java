@@ -0,0 +1,247 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockChangeDTO;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "beerstock.stock-events.push-interval=PT0.05S",
+        "beerstock.stock-events.sender-threads=2",
+        "beerstock.stock-events.send-timeout=PT0.5S"
+})
+@Timeout(30)
+class StockChangeStreamTest {
+
+    private static final long EVENT_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Kept for the whole class: a client only reachable from its response body may be collected mid-stream, which
+     * closes the connection under the reader.
+     */
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StockChangeStream stockChangeStream;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenSubscribedThenSnapshotIsSentFollowedByCoalescedChanges() throws Exception {
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Stream snapshot").build().toBeerDTO());
+
+        try (Events events = subscribe(null)) {
+            Map<String, String> snapshot = events.next();
+            assertThat(snapshot.get("event"), is(StockChangeStream.SNAPSHOT_EVENT));
+            assertThat(changes(snapshot), hasItem(new StockChangeDTO(beerDTO.getId(), 10, 50, false)));
+
+            beerService.increment(beerDTO.getId(), 5);
+            beerService.increment(beerDTO.getId(), 5);
+
+            Map<String, String> changes;
+            do {
+                changes = events.next();
+                assertThat(changes.get("event"), is(StockChangeStream.CHANGES_EVENT));
+                assertThat(changes(changes), hasSize(1));
+            } while (changes(changes).get(0).getQuantity() != 20);
+            assertThat(Long.parseLong(changes.get("id")), is(greaterThan(Long.parseLong(snapshot.get("id")))));
+        }
+    }
+
+    @Test
+    void whenResubscribedWithLastEventIdThenMissedChangesAreSentWithoutSnapshot() throws Exception {
+        BeerDTO beerDTO = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Stream resume").build().toBeerDTO());
+        String lastEventId;
+        try (Events events = subscribe(null)) {
+            lastEventId = events.next().get("id");
+        }
+
+        beerService.decrement(beerDTO.getId(), 4);
+
+        try (Events events = subscribe(lastEventId)) {
+            Map<String, String> changes = events.next();
+            assertThat(changes.get("event"), is(StockChangeStream.CHANGES_EVENT));
+            assertThat(changes(changes), contains(new StockChangeDTO(beerDTO.getId(), 6, 50, false)));
+        }
+    }
+
+    @Test
+    void whenSubscribersStopReadingThenTheyAreDroppedAndOthersAreStillServed() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        double subscribedBefore = subscribers();
+        try {
+            for (int i = 0; i < 4; i++) {
+                stockChangeStream.subscribe(new BlockedEmitter(unblock), null);
+            }
+            BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> received = new LinkedBlockingQueue<>();
+            stockChangeStream.subscribe(new RecordingEmitter(received), null);
+
+            assertThat(received.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS), is(notNullValue()));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(EVENT_TIMEOUT_SECONDS);
+            while (subscribers() > subscribedBefore + 1 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(subscribers(), is(lessThanOrEqualTo(subscribedBefore + 1)));
+        } finally {
+            unblock.countDown();
+        }
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("beerstock.stock-events.subscribers").gauge().value();
+    }
+
+    private Events subscribe(String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/beers/stock/events"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return new Events(HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofLines()).body());
+    }
+
+    private List<StockChangeDTO> changes(Map<String, String> event) throws Exception {
+        return objectMapper.readValue(event.get("data"), new TypeReference<List<StockChangeDTO>>() {
+        });
+    }
+
+    /**
+     * A client that stopped reading: every write blocks until the test ends.
+     */
+    private static class BlockedEmitter extends SseEmitter {
+
+        private final CountDownLatch unblock;
+
+        private BlockedEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> received;
+
+        private RecordingEmitter(BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> received) {
+            this.received = received;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            received.add(builder.build());
+        }
+    }
+
+    /**
+     * Reads the stream on its own thread, so that waiting for an event is bounded instead of blocking on the socket.
+     */
+    private static class Events implements AutoCloseable {
+
+        private static final String END = "";
+
+        private final Stream<String> lines;
+        private final BlockingQueue<Map<String, String>> events = new LinkedBlockingQueue<>();
+        private final Thread reader;
+
+        private Events(Stream<String> lines) {
+            this.lines = lines;
+            this.reader = new Thread(this::read, "stock-events-reader");
+            this.reader.setDaemon(true);
+            this.reader.start();
+        }
+
+        /**
+         * @return the fields of the next event, heartbeat comments skipped
+         */
+        private Map<String, String> next() throws InterruptedException {
+            Map<String, String> event = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertThat("event received in time", event, is(notNullValue()));
+            assertThat("stream still open", event.containsKey(END), is(false));
+            return event;
+        }
+
+        private void read() {
+            Map<String, String> fields = new HashMap<>();
+            try {
+                Iterator<String> iterator = lines.iterator();
+                while (iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.isEmpty()) {
+                        if (!fields.isEmpty()) {
+                            events.add(fields);
+                            fields = new HashMap<>();
+                        }
+                    } else if (!line.startsWith(":")) {
+                        int colon = line.indexOf(':');
+                        fields.merge(line.substring(0, colon), line.substring(colon + 1), (previous, value) -> previous + "\n" + value);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // closed by the test, or by the server: reported by next() as the end of the stream
+            }
+            events.add(Map.of(END, END));
+        }
+
+        @Override
+        public void close() {
+            lines.close();
+            reader.interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.StockMovementDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementPageDTO;
+import one.digitalinnovation.beerstock.dto.StockQuantityAtDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockMovementRepository;
+import one.digitalinnovation.beerstock.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "beerstock.journal.snapshot-interval=PT1H")
+class StockJournalTest {
+
+    private static final long BEER_ID = 1L;
+
+    @Autowired
+    private StockJournal stockJournal;
+
+    @Autowired
+    private StockAdjuster stockAdjuster;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        stockSnapshotRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenMovementsAreRecordedThenTheyAreWrittenWithTheirTransaction() {
+        record(10, 10);
+        record(-3, 7);
+
+        StockMovementPageDTO history = stockJournal.findHistory(BEER_ID, null, null, null, 20);
+        assertThat(history.getContent().stream().map(StockMovementDTO::getDelta).collect(Collectors.toList()), contains(10, -3));
+        assertThat(history.getContent().get(1).getQuantity(), is(7));
+    }
+
+    @Test
+    void whenTheChangeIsRolledBackThenItsMovementIsToo() {
+        transactionTemplate.executeWithoutResult(status -> {
+            stockJournal.record(BEER_ID, 10, 10);
+            status.setRollbackOnly();
+        });
+
+        assertThat(stockMovementRepository.count(), is(0L));
+        assertThrows(IllegalTransactionStateException.class, () -> stockJournal.record(BEER_ID, 10, 10));
+    }
+
+    @Test
+    void whenStockIsAdjustedThenTheMovementIsRecordedWithIt() {
+        Beer beer = BeerMapper.INSTANCE.toModel(BeerDTOBuilder.builder().id(null).build().toBeerDTO());
+        beer.setMax(50);
+        beer.setQuantity(10);
+        Beer saved = beerRepository.save(beer);
+
+        stockAdjuster.adjust(saved.getId(), 5);
+
+        StockMovementPageDTO history = stockJournal.findHistory(saved.getId(), null, null, null, 20);
+        assertThat(history.getContent().stream().map(StockMovementDTO::getQuantity).collect(Collectors.toList()), contains(15));
+    }
+
+    @Test
+    void whenHistoryIsLongerThanOnePageThenItIsReadWithTheCursor() {
+        for (int i = 1; i <= 5; i++) {
+            record(1, i);
+        }
+
+        StockMovementPageDTO firstPage = stockJournal.findHistory(BEER_ID, null, null, null, 3);
+        StockMovementPageDTO lastPage = stockJournal.findHistory(BEER_ID, null, null, firstPage.getNextCursor(), 3);
+
+        assertThat(firstPage.isHasNext(), is(true));
+        assertThat(lastPage.getContent().stream().map(StockMovementDTO::getQuantity).collect(Collectors.toList()), contains(4, 5));
+        assertThat(lastPage.isHasNext(), is(false));
+    }
+
+    @Test
+    void whenSnapshotIsTakenThenQuantityIsRebuiltFromItAndLaterMovements() {
+        record(10, 10);
+        record(5, 15);
+        stockJournal.snapshot();
+        record(-4, 11);
+
+        StockQuantityAtDTO quantity = stockJournal.findQuantityAt(BEER_ID, Instant.now());
+
+        assertThat(quantity.getQuantity(), is(11));
+        assertThat(quantity.getReplayedMovements(), is(1));
+        assertThat(stockJournal.findQuantityAt(BEER_ID, Instant.EPOCH).getQuantity(), is(0));
+    }
+
+    private void record(int delta, int quantity) {
+        transactionTemplate.executeWithoutResult(status -> stockJournal.record(BEER_ID, delta, quantity));
+    }
+}
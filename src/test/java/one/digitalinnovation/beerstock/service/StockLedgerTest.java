@@ -0,0 +1,207 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(properties = {
+        "beerstock.stock.ledger.enabled=true",
+        "beerstock.stock.ledger.flush-interval=PT1H"
+})
+class StockLedgerTest {
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenAdjustedThenDatabaseIsOnlyWrittenOnFlush() {
+        Beer beer = saveBeer(50, 10);
+
+        StockAdjustment adjustment = stockLedger.adjust(beer.getId(), 5);
+
+        assertThat(adjustment.getBeer().getQuantity(), is(15));
+        assertThat(persistedQuantity(beer), is(10));
+
+        stockLedger.flush();
+
+        assertThat(persistedQuantity(beer), is(15));
+    }
+
+    @Test
+    void whenAdjustmentCrossesABoundThenItIsRejected() {
+        Beer beer = saveBeer(50, 10);
+
+        assertThat(stockLedger.adjust(beer.getId(), 41).getStatus(), is(StockAdjustment.Status.OUT_OF_BOUNDS));
+        assertThat(stockLedger.adjust(beer.getId(), -11).getStatus(), is(StockAdjustment.Status.OUT_OF_BOUNDS));
+        assertThat(stockLedger.adjust(Long.MAX_VALUE, 1).getStatus(), is(StockAdjustment.Status.NOT_FOUND));
+    }
+
+    @Test
+    void whenConcurrentAdjustmentsAreCoalescedThenNoneIsLost() throws InterruptedException {
+        Beer beer = saveBeer(10_000, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    stockLedger.adjust(beer.getId(), 1);
+                    if (j % 100 == 0) {
+                        stockLedger.flush();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        stockLedger.flush();
+
+        assertThat(persistedQuantity(beer), is(8_000));
+    }
+
+    @Test
+    void whenBeerIsEvictedWhileBeingAdjustedThenNoDeltaIsLost() throws InterruptedException {
+        Beer beer = saveBeer(10_000, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            int worker = i;
+            executor.execute(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    stockLedger.adjust(beer.getId(), 1);
+                    if (worker == 0 && j % 10 == 0) {
+                        stockLedger.evict(List.of(beer.getId()));
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        stockLedger.evict(List.of(beer.getId()));
+
+        assertThat(persistedQuantity(beer), is(8_000));
+    }
+
+    @Test
+    void whenDeltasAreFlushedThenAdjustmentsCarryTheWrittenVersion() {
+        Beer beer = saveBeer(50, 10);
+        long loadedVersion = stockLedger.adjust(beer.getId(), 1).getBeer().getVersion();
+
+        stockLedger.flush();
+
+        assertThat(stockLedger.adjust(beer.getId(), 1).getBeer().getVersion(), is(loadedVersion + 1));
+        stockLedger.flush();
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getVersion(), is(loadedVersion + 2));
+    }
+
+    @Test
+    void whenBeerIsHeldThenAdjustmentsWaitAndSeeTheHolderWrites() throws Exception {
+        Beer beer = saveBeer(50, 10);
+        stockLedger.adjust(beer.getId(), 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<StockAdjustment> waiting = stockLedger.evictDuring(List.of(beer.getId()), () -> {
+                transactionTemplate.executeWithoutResult(status -> beerRepository.adjustQuantity(beer.getId(), 5));
+                Future<StockAdjustment> adjustment = executor.submit(() -> stockLedger.adjust(beer.getId(), 1));
+                Thread.sleep(100);
+                assertThat(adjustment.isDone(), is(false));
+                return adjustment;
+            });
+
+            assertThat(waiting.get(1, TimeUnit.MINUTES).getBeer().getQuantity(), is(17));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenBeerIsHeldThenOtherBeersAreStillFlushedAndEvictionKeepsTheHold() throws Exception {
+        Beer held = saveBeer(50, 10);
+        Beer other = saveBeer(50, 10, "Skol");
+        stockLedger.adjust(other.getId(), 2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<StockAdjustment> waiting = stockLedger.evictDuring(List.of(held.getId()), () -> {
+                executor.submit(() -> {
+                    stockLedger.flush();
+                    stockLedger.evict(List.of(held.getId(), other.getId()));
+                }).get(1, TimeUnit.MINUTES);
+                assertThat(persistedQuantity(other), is(12));
+                return executor.submit(() -> stockLedger.adjust(held.getId(), 1));
+            });
+
+            assertThat(waiting.get(1, TimeUnit.MINUTES).getBeer().getQuantity(), is(11));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenBeerIsEvictedThenPendingDeltaIsWrittenAndReadsFallBackToDatabase() {
+        Beer beer = saveBeer(50, 10);
+        stockLedger.adjust(beer.getId(), -4);
+
+        stockLedger.evict(List.of(beer.getId()));
+
+        BeerDTO beerDTO = BeerMapper.INSTANCE.toDTO(beer);
+        stockLedger.overlay(beerDTO);
+        assertThat(beerDTO.getQuantity(), is(10));
+        assertThat(persistedQuantity(beer), is(6));
+    }
+
+    @Test
+    void whenBeerIsNotAdjustedBetweenFlushesThenItIsDroppedAndReloaded() {
+        Beer beer = saveBeer(50, 10);
+        stockLedger.adjust(beer.getId(), 5);
+        stockLedger.flush();
+        stockLedger.flush();
+
+        transactionTemplate.executeWithoutResult(status -> beerRepository.adjustQuantity(beer.getId(), 20));
+
+        BeerDTO beerDTO = BeerMapper.INSTANCE.toDTO(beer);
+        stockLedger.overlay(beerDTO);
+        assertThat(beerDTO.getQuantity(), is(10));
+        assertThat(stockLedger.adjust(beer.getId(), 1).getBeer().getQuantity(), is(36));
+    }
+
+    private int persistedQuantity(Beer beer) {
+        return beerRepository.findById(beer.getId()).orElseThrow().getQuantity();
+    }
+
+    private Beer saveBeer(int max, int quantity) {
+        return saveBeer(max, quantity, "Brahma");
+    }
+
+    private Beer saveBeer(int max, int quantity, String name) {
+        Beer beer = BeerMapper.INSTANCE.toModel(BeerDTOBuilder.builder().id(null).name(name).build().toBeerDTO());
+        beer.setMax(max);
+        beer.setQuantity(quantity);
+        return beerRepository.save(beer);
+    }
+}
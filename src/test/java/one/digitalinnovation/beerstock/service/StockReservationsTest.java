@@ -0,0 +1,118 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.ReservationDTO;
+import one.digitalinnovation.beerstock.dto.ReservationRequestDTO;
+import one.digitalinnovation.beerstock.entity.StockHold;
+import one.digitalinnovation.beerstock.exceptions.BeerStockLessThanZeroException;
+import one.digitalinnovation.beerstock.exceptions.ReservationNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockHoldRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "beerstock.reservations.tick=PT0.01S")
+class StockReservationsTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private StockHoldRepository stockHoldRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long beerId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        beerId = beerService.createBeer(BeerDTOBuilder.builder().id(null).quantity(10).build().toBeerDTO()).getId();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        beerService.deleteById(beerId);
+    }
+
+    @Test
+    void whenStockIsHeldThenItCannotBeDecrementedOrHeldAgain() throws Exception {
+        beerService.reserve(beerId, new ReservationRequestDTO(8, null));
+
+        assertThrows(BeerStockLessThanZeroException.class, () -> beerService.decrement(beerId, 3));
+        assertThrows(BeerStockLessThanZeroException.class, () -> beerService.reserve(beerId, new ReservationRequestDTO(3, null)));
+        assertThat(beerService.decrement(beerId, 2).getQuantity(), is(8));
+    }
+
+    @Test
+    void whenHoldIsCommittedThenQuantityIsDecrementedOnce() throws Exception {
+        ReservationDTO reservation = beerService.reserve(beerId, new ReservationRequestDTO(4, null));
+
+        BeerDTO beerDTO = beerService.commitReservation(reservation.getId());
+
+        assertThat(beerDTO.getQuantity(), is(6));
+        assertThat(beerRepository.findById(beerId).orElseThrow().getReserved(), is(0));
+        assertThrows(ReservationNotFoundException.class, () -> beerService.commitReservation(reservation.getId()));
+        assertThrows(ReservationNotFoundException.class, () -> beerService.releaseReservation(reservation.getId()));
+    }
+
+    @Test
+    void whenHoldIsReleasedThenStockIsAvailableAgain() throws Exception {
+        ReservationDTO reservation = beerService.reserve(beerId, new ReservationRequestDTO(10, null));
+
+        beerService.releaseReservation(reservation.getId());
+
+        assertThat(beerService.decrement(beerId, 10).getQuantity(), is(0));
+    }
+
+    @Test
+    void whenHoldExpiresThenItIsReleasedAndCannotBeCommitted() throws Exception {
+        int heldBefore = stockReservations.size();
+        ReservationDTO reservation = beerService.reserve(beerId, new ReservationRequestDTO(5, Duration.ofMillis(20)));
+        assertThat(reservation.getExpiresAt(), notNullValue());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (beerRepository.findById(beerId).orElseThrow().getReserved() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(beerRepository.findById(beerId).orElseThrow().getReserved(), is(0));
+        assertThat(stockReservations.size(), is(heldBefore));
+        assertThrows(ReservationNotFoundException.class, () -> beerService.commitReservation(reservation.getId()));
+    }
+
+    @Test
+    void whenAnotherInstanceLeftAnExpiredHoldThenOnlyThatHoldIsReleased() throws Exception {
+        ReservationDTO live = beerService.reserve(beerId, new ReservationRequestDTO(3, null));
+        UUID orphanId = UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            beerRepository.reserve(beerId, 4);
+            stockHoldRepository.save(new StockHold(orphanId, beerId, 4, Instant.now().minusSeconds(1)));
+        });
+
+        stockReservations.releaseOrphaned();
+
+        assertThat(beerRepository.findById(beerId).orElseThrow().getReserved(), is(3));
+        assertThat(stockHoldRepository.existsById(orphanId), is(false));
+        assertThat(beerService.commitReservation(live.getId()).getQuantity(), is(7));
+    }
+}